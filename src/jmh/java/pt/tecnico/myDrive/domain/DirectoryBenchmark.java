@@ -0,0 +1,85 @@
+package pt.tecnico.myDrive.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.ist.fenixframework.FenixFramework;
+
+import pt.tecnico.myDrive.exceptions.FileUnknownException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks files up by name and lists directories, from small directories to
+ * huge ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DirectoryBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  public int files;
+
+  private User _user;
+  private Directory _dir;
+  private String[] _names;
+  private int _next;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    FenixFramework.getTransactionManager().begin(false);
+
+    FileSystem fs = FileSystem.getInstance();
+    _user = new User(fs, "benchmark", "benchmark", "benchmark");
+    _dir = new Directory(fs, "benchmark", fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(_dir);
+
+    _names = new String[files];
+    for (int i = 0; i < files; i++) {
+      _names[i] = "file" + i;
+      new PlainFile(fs, _names[i], _dir, _user, "");
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws Exception {
+    FenixFramework.getTransactionManager().rollback();
+  }
+
+  @Benchmark
+  public File getFileByName() {
+    _next = (_next + 1) % _names.length;
+    return _dir.getFileByName(_names[_next]);
+  }
+
+  @Benchmark
+  public boolean getMissingFileByName() {
+    try {
+      _dir.getFileByName("missing");
+      return true;
+    } catch (FileUnknownException e) {
+      return false;
+    }
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String listFilesAll() {
+    return _dir.listFilesAll(_user);
+  }
+}
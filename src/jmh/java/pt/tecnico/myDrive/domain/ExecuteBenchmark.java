@@ -0,0 +1,75 @@
+package pt.tecnico.myDrive.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.ist.fenixframework.FenixFramework;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes plain file scripts, each line of which names a file, in nested
+ * directories, to run with some arguments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExecuteBenchmark {
+
+  @Param({"1", "10", "100"})
+  public int lines;
+
+  private User _user;
+  private PlainFile _script;
+  private String[] _arguments = new String[0];
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    FenixFramework.getTransactionManager().begin(false);
+
+    FileSystem fs = FileSystem.getInstance();
+    _user = new User(fs, "benchmark", "benchmark", "benchmark");
+    Directory home = new Directory(fs, "benchmark", fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(home);
+
+    Directory dir = new Directory(fs, "b", new Directory(fs, "a", home, _user), _user);
+    new PlainFile(fs, "data", dir, _user, "");
+    new App(fs, "app", dir, _user, ExecuteBenchmark.class.getName() + ".run");
+
+    StringBuilder script = new StringBuilder();
+    for (int i = 0; i < lines; i++)
+      script.append(i % 2 == 0 ? "a/b/app" : "a/b/data").append(" argument").append(i).append('\n');
+    _script = new PlainFile(fs, "script", home, _user, script.toString());
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws Exception {
+    FenixFramework.getTransactionManager().rollback();
+  }
+
+  /**
+   * Method the benchmark's app runs.
+   */
+  public static void run(String[] arguments) {
+  }
+
+  @Benchmark
+  public PlainFile execute() {
+    _script.execute(_user, _arguments);
+    return _script;
+  }
+}
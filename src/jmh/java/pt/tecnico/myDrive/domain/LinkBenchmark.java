@@ -0,0 +1,65 @@
+package pt.tecnico.myDrive.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.ist.fenixframework.FenixFramework;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves a path through a chain of links, each pointing to the next one
+ * and the last one to a plain file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LinkBenchmark {
+
+  @Param({"1", "4", "16"})
+  public int chain;
+
+  private FileSystem _fs;
+  private User _user;
+  private Directory _home;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    FenixFramework.getTransactionManager().begin(false);
+
+    _fs = FileSystem.getInstance();
+    _user = new User(_fs, "benchmark", "benchmark", "benchmark");
+    _home = new Directory(_fs, "benchmark", _fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(_home);
+
+    Directory dir = new Directory(_fs, "dir", _home, _user);
+    new PlainFile(_fs, "target", dir, _user, "target");
+    new Link(_fs, "link" + chain, _home, _user, "dir/target");
+    for (int i = chain - 1; i >= 0; i--)
+      new Link(_fs, "link" + i, _home, _user, "link" + (i + 1));
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws Exception {
+    FenixFramework.getTransactionManager().rollback();
+  }
+
+  @Benchmark
+  public File resolve() {
+    return _fs.getFileByPath("link0", _user, _home);
+  }
+}
@@ -0,0 +1,120 @@
+package pt.tecnico.myDrive.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.ist.fenixframework.FenixFramework;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the in place path resolver against the previous resolution, which
+ * split the path into a list and recursed through Directory.getFile popping
+ * its head. The resolver runs directly, bypassing the resolved path cache;
+ * cached measures getFileByPath, which is served by the cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PathResolutionBenchmark {
+
+  @Param({"2", "8", "32", "128"})
+  public int depth;
+
+  private FileSystem _fs;
+  private User _user;
+  private Directory _root;
+  private Directory _home;
+  private String _path;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    FenixFramework.getTransactionManager().begin(false);
+
+    _fs = FileSystem.getInstance();
+    _root = (Directory) _fs.getFileByPath("/", null, null);
+    _user = new User(_fs, "benchmark", "benchmark", "benchmark");
+    _home = new Directory(_fs, "benchmark", _fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(_home);
+
+    StringBuilder path = new StringBuilder();
+    Directory dir = _home;
+    for (int i = 0; i < depth; i++) {
+      dir = new Directory(_fs, "d" + i, dir, _user);
+      path.append('d').append(i).append('/');
+    }
+    new PlainFile(_fs, "leaf", dir, _user, "leaf");
+    _path = path.append("leaf").toString();
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws Exception {
+    FenixFramework.getTransactionManager().rollback();
+  }
+
+  @Benchmark
+  public File inPlace() {
+    return new PathResolver(_fs, _root, _user).resolve(_path, _home);
+  }
+
+  @Benchmark
+  public File cached() {
+    return _fs.getFileByPath(_path, _user, _home);
+  }
+
+  @Benchmark
+  public File splitAndRecurse() {
+    return getFile(_home, processPath(_path), _user);
+  }
+
+  /**
+   * Previous tokenization: trims the path and splits it into a fresh list.
+   */
+  private static ArrayList<String> processPath(String path) {
+    ArrayList<String> result = new ArrayList<String>();
+
+    if(path.charAt(path.length()-1) == '/')
+      path = path.substring(0, path.length()-1);
+    if(path.charAt(0) == '/')
+      path = path.substring(1,path.length());
+
+    String[] tokens = {path};
+    if(path.contains("/"))
+      tokens = path.split("/");
+
+    for(String token : tokens)
+      result.add(token);
+    return result;
+  }
+
+  /**
+   * Previous Directory.getFile, restricted to directories and plain files.
+   */
+  private File getFile(Directory dir, ArrayList<String> tokens, User user) {
+    File file;
+    if(tokens.size() > 1){
+      String name = tokens.remove(0);
+      file = getFile(_fs.assertDirectory(dir.getFileByName(name)), tokens, user);
+      user.checkExecutionPermissions(file);
+      return file;
+    }
+    file = dir.getFileByName(tokens.get(0)).getFileObject(user);
+    user.checkReadPermissions(file);
+    return file;
+  }
+}
@@ -0,0 +1,67 @@
+package pt.tecnico.myDrive.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.ist.fenixframework.FenixFramework;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the permissions of the owner of a file and of another user on it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PermissionBenchmark {
+
+  private User _owner;
+  private User _other;
+  private File _file;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    FenixFramework.getTransactionManager().begin(false);
+
+    FileSystem fs = FileSystem.getInstance();
+    _owner = new User(fs, "benchmark", "benchmark", "benchmark", "rwxdr-x-");
+    _other = new User(fs, "benchmark2", "benchmark2", "benchmark2");
+    Directory home = new Directory(fs, "benchmark", fs.getHomeDirectory(), _owner);
+    _owner.setHomeDirectory(home);
+    _file = new PlainFile(fs, "file", home, _owner, "");
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws Exception {
+    FenixFramework.getTransactionManager().rollback();
+  }
+
+  @Benchmark
+  public File owner() {
+    _owner.checkReadPermissions(_file);
+    _owner.checkWritePermissions(_file);
+    _owner.checkExecutionPermissions(_file);
+    return _file;
+  }
+
+  @Benchmark
+  public File others() {
+    _other.checkReadPermissions(_file);
+    _other.checkExecutionPermissions(_file);
+    return _file;
+  }
+}
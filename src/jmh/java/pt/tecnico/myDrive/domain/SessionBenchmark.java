@@ -0,0 +1,76 @@
+package pt.tecnico.myDrive.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.ist.fenixframework.FenixFramework;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures token validation as the number of open sessions grows. With the
+ * token index the cost should stay flat across session counts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SessionBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  public int sessions;
+
+  private FileSystem _fs;
+  private long[] _tokens;
+  private int _next;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    FenixFramework.getTransactionManager().begin(false);
+
+    _fs = FileSystem.getInstance();
+    User user = new User(_fs, "benchmark", "benchmark", "benchmark");
+    Directory home = new Directory(_fs, "benchmark", _fs.getHomeDirectory(), user);
+    user.setHomeDirectory(home);
+
+    Random random = new Random(42);
+    _tokens = new long[sessions];
+    for (int i = 0; i < sessions; i++) {
+      long token = random.nextLong();
+      while (_fs.existsToken(token))
+        token = random.nextLong();
+      new Login(_fs, user, home, token);
+      _tokens[i] = token;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws Exception {
+    FenixFramework.getTransactionManager().rollback();
+  }
+
+  @Benchmark
+  public boolean validToken() {
+    _next = (_next + 1) % _tokens.length;
+    return _fs.isValidToken(_tokens[_next]);
+  }
+
+  @Benchmark
+  public boolean unknownToken() {
+    return _fs.existsToken(0);
+  }
+}
@@ -0,0 +1,96 @@
+package pt.tecnico.myDrive.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.ist.fenixframework.FenixFramework;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports and imports filesystems holding from a hundred to ten thousand
+ * plain files, spread over directories of a hundred files each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XmlBenchmark {
+
+  private static final int FILES_PER_DIRECTORY = 100;
+
+  @Param({"100", "1000", "10000"})
+  public int files;
+
+  private FileSystem _fs;
+  private Element _import;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    FenixFramework.getTransactionManager().begin(false);
+
+    _fs = FileSystem.getInstance();
+    User user = new User(_fs, "benchmark", "benchmark", "benchmark");
+    Directory home = new Directory(_fs, "benchmark", _fs.getHomeDirectory(), user);
+    user.setHomeDirectory(home);
+
+    _import = new Element("myDrive");
+    Element userElement = new Element("user").setAttribute("username", "benchmark");
+    userElement.addContent(new Element("password").setText("benchmark"));
+    userElement.addContent(new Element("home").setText("/home/benchmark"));
+    _import.addContent(userElement);
+
+    Directory dir = null;
+    for (int i = 0; i < files; i++) {
+      String dirName = "d" + i / FILES_PER_DIRECTORY;
+      if (i % FILES_PER_DIRECTORY == 0) {
+        dir = new Directory(_fs, dirName, home, user);
+        _import.addContent(new Element("dir")
+            .addContent(new Element("owner").setText("benchmark"))
+            .addContent(new Element("path").setText("/home/benchmark"))
+            .addContent(new Element("name").setText(dirName)));
+      }
+      new PlainFile(_fs, "f" + i, dir, user, "contents of f" + i);
+      _import.addContent(new Element("plain")
+          .addContent(new Element("path").setText("/home/benchmark/" + dirName))
+          .addContent(new Element("owner").setText("benchmark"))
+          .addContent(new Element("name").setText("f" + i))
+          .addContent(new Element("contents").setText("contents of f" + i)));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws Exception {
+    FenixFramework.getTransactionManager().rollback();
+  }
+
+  @Benchmark
+  public Document xmlExport() {
+    return _fs.xmlExport();
+  }
+
+  /**
+   * Each import resets the filesystem and builds it again from the document.
+   */
+  @Benchmark
+  public FileSystem xmlImport() {
+    _fs.xmlImport(_import);
+    return _fs;
+  }
+}
@@ -0,0 +1,58 @@
+package pt.tecnico.myDrive.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of the operations of a kind run by one worker. Every sample is
+ * kept, so percentiles are exact; recorders of several workers are merged
+ * once the run is over.
+ */
+final class LatencyRecorder {
+
+  private long[] _samples = new long[1024];
+  private int _count;
+  private long _errors;
+
+  void record(long nanos) {
+    if (_count == _samples.length)
+      _samples = Arrays.copyOf(_samples, _count * 2);
+    _samples[_count++] = nanos;
+  }
+
+  void error() {
+    _errors++;
+  }
+
+  void merge(LatencyRecorder other) {
+    for (int i = 0; i < other._count; i++)
+      record(other._samples[i]);
+    _errors += other._errors;
+  }
+
+  int count() {
+    return _count;
+  }
+
+  long errors() {
+    return _errors;
+  }
+
+  /**
+   * Sorts the samples, which later percentile queries rely on.
+   */
+  void sort() {
+    Arrays.sort(_samples, 0, _count);
+  }
+
+  /**
+   * @param fraction e.g. 0.99 for the 99th percentile
+   * @return The latency, in nanoseconds, not exceeded by that fraction of the
+   * samples. The samples must have been sorted.
+   */
+  long percentile(double fraction) {
+    if (_count == 0)
+      return 0;
+    int index = (int) Math.ceil(fraction * _count) - 1;
+    return _samples[Math.max(0, Math.min(index, _count - 1))];
+  }
+}
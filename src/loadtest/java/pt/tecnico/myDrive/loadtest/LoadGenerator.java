@@ -0,0 +1,351 @@
+package pt.tecnico.myDrive.loadtest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.FenixFramework;
+
+import pt.tecnico.myDrive.myDriveApplication;
+import pt.tecnico.myDrive.domain.ChunkSweeper;
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.User;
+import pt.tecnico.myDrive.exceptions.InvalidTokenException;
+import pt.tecnico.myDrive.services.ChangeDirectoryService;
+import pt.tecnico.myDrive.services.CreateFileService;
+import pt.tecnico.myDrive.services.DeleteFileService;
+import pt.tecnico.myDrive.services.ListDirectoryService;
+import pt.tecnico.myDrive.services.LoginService;
+import pt.tecnico.myDrive.services.ReadFileService;
+import pt.tecnico.myDrive.services.ServiceStats;
+import pt.tecnico.myDrive.services.WriteFileService;
+
+/**
+ * Drives the services from several threads with a mix of operations and
+ * reports their throughput and latency. Run with:
+ * mvn -Ploadtest compile exec:java
+ *
+ * Configured through system properties:
+ * load.threads   worker threads (number of processors)
+ * load.users     users the workers are spread over (8)
+ * load.depth     levels of directories in each home (3)
+ * load.fanout    directories in each directory (3)
+ * load.files     plain files in each directory (10)
+ * load.size      bytes written by each write and create (256)
+ * load.duplicates share of writes and creates, and of the files of each
+ *                home, given the same content, so that they share its
+ *                chunks (0.25); the rest are given random letters
+ * load.warmup    seconds run before measuring (5)
+ * load.duration  seconds measured (30)
+ * load.seed      seed of the random operation choice and content (42)
+ * load.mix       weight of each operation, e.g. the default
+ *                read:40,write:15,list:15,create:10,delete:10,cd:5,login:5
+ */
+public class LoadGenerator {
+
+  enum Operation { LOGIN, CREATE, READ, WRITE, LIST, DELETE, CD }
+
+  private static final String PASSWORD = "loadpassword";
+
+  private final int _threads = Integer.getInteger("load.threads", Runtime.getRuntime().availableProcessors());
+  private final int _users = Integer.getInteger("load.users", 8);
+  private final int _depth = Integer.getInteger("load.depth", 3);
+  private final int _fanout = Integer.getInteger("load.fanout", 3);
+  private final int _files = Integer.getInteger("load.files", 10);
+  private final int _size = Integer.getInteger("load.size", 256);
+  private final double _duplicates = Double.parseDouble(System.getProperty("load.duplicates", "0.25"));
+  /** Content given to the share of files and writes set by load.duplicates */
+  private final String _duplicate = duplicate();
+  private final int _warmup = Integer.getInteger("load.warmup", 5);
+  private final int _duration = Integer.getInteger("load.duration", 30);
+  private final long _seed = Long.getLong("load.seed", 42);
+  private final Map<Operation, Integer> _mix = parseMix(
+      System.getProperty("load.mix", "read:40,write:15,list:15,create:10,delete:10,cd:5,login:5"));
+
+  /** Directories and files of each home, relative to it */
+  private final List<String> _directories = new ArrayList<String>();
+  private final List<String> _plainFiles = new ArrayList<String>();
+
+  private volatile boolean _measuring;
+  private volatile boolean _stopped;
+
+  public static void main(String[] args) throws Exception {
+    try {
+      myDriveApplication.init();
+      ChunkSweeper.start();
+      new LoadGenerator().run();
+    } finally {
+      ChunkSweeper.stop();
+      FenixFramework.shutdown();
+    }
+  }
+
+  private static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<Operation, Integer>(Operation.class);
+    for (String entry : mix.split(",")) {
+      String[] pair = entry.trim().split(":");
+      weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+    }
+    return weights;
+  }
+
+  private void run() throws InterruptedException {
+    System.out.printf("%d threads, %d users, tree of depth %d and fanout %d with %d files per directory%n",
+        _threads, _users, _depth, _fanout, _files);
+    System.out.println("Mix: " + _mix + ", duplicate content: " + _duplicates);
+
+    tree("", 0);
+    for (int i = 0; i < _users; i++)
+      populate(username(i));
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<Worker> workers = new ArrayList<Worker>();
+    for (int i = 0; i < _threads; i++) {
+      Worker worker = new Worker(i, username(i % _users), start);
+      workers.add(worker);
+      worker.start();
+    }
+
+    start.countDown();
+    Thread.sleep(_warmup * 1000L);
+    for (ServiceStats stats : ServiceStats.all().values())
+      stats.reset();
+    _measuring = true;
+    long began = System.nanoTime();
+    Thread.sleep(_duration * 1000L);
+    _measuring = false;
+    long elapsed = System.nanoTime() - began;
+    _stopped = true;
+    for (Worker worker : workers)
+      worker.join();
+
+    report(workers, elapsed);
+  }
+
+  private static String username(int user) {
+    return "load" + user;
+  }
+
+  private String home(String username) {
+    return "/home/" + username;
+  }
+
+  /**
+   * Lists the directories and files every home holds.
+   */
+  private void tree(String prefix, int level) {
+    _directories.add(prefix);
+    for (int i = 0; i < _files; i++)
+      _plainFiles.add(prefix + "f" + i);
+    if (level == _depth)
+      return;
+    for (int i = 0; i < _fanout; i++)
+      tree(prefix + "d" + i + "/", level + 1);
+  }
+
+  /**
+   * Creates the user and its tree, unless a previous run already has.
+   */
+  @Atomic
+  private void populate(String username) {
+    FileSystem fs = FileSystem.getInstance();
+    if (fs.getUserByUsername(username) != null)
+      return;
+
+    User user = new User(fs, username, username, PASSWORD);
+    Directory home = new Directory(fs, username, fs.getHomeDirectory(), user);
+    user.setHomeDirectory(home);
+    populate(fs, user, home, 0, new Random(_seed ^ username.hashCode()));
+  }
+
+  private void populate(FileSystem fs, User user, Directory dir, int level, Random random) {
+    for (int i = 0; i < _files; i++)
+      new PlainFile(fs, "f" + i, dir, user, payload(random));
+    if (level == _depth)
+      return;
+    for (int i = 0; i < _fanout; i++)
+      populate(fs, user, new Directory(fs, "d" + i, dir, user), level + 1, random);
+  }
+
+  private String duplicate() {
+    StringBuilder payload = new StringBuilder(_size);
+    for (int i = 0; i < _size; i++)
+      payload.append((char) ('a' + i % 26));
+    return payload.toString();
+  }
+
+  /**
+   * @return Content for a file or a write: the duplicate content for the
+   * share set by load.duplicates, which exercises chunk sharing, random
+   * letters otherwise.
+   */
+  private String payload(Random random) {
+    if (random.nextDouble() < _duplicates)
+      return _duplicate;
+    StringBuilder payload = new StringBuilder(_size);
+    for (int i = 0; i < _size; i++)
+      payload.append((char) ('a' + random.nextInt(26)));
+    return payload.toString();
+  }
+
+  private void report(List<Worker> workers, long elapsed) {
+    double seconds = elapsed / 1e9;
+    long total = 0;
+
+    System.out.printf("%n%-8s %10s %8s %12s %10s %10s %10s%n",
+        "op", "count", "errors", "ops/s", "p50 us", "p99 us", "p999 us");
+    for (Operation operation : Operation.values()) {
+      LatencyRecorder merged = new LatencyRecorder();
+      for (Worker worker : workers)
+        merged.merge(worker._latencies.get(operation));
+      if (merged.count() == 0 && merged.errors() == 0)
+        continue;
+
+      merged.sort();
+      total += merged.count();
+      System.out.printf("%-8s %10d %8d %12.1f %10.1f %10.1f %10.1f%n",
+          operation.name().toLowerCase(), merged.count(), merged.errors(), merged.count() / seconds,
+          merged.percentile(0.5) / 1e3, merged.percentile(0.99) / 1e3, merged.percentile(0.999) / 1e3);
+    }
+    System.out.printf("%-8s %10d %8s %12.1f%n", "total", total, "", total / seconds);
+
+    System.out.println();
+    for (ServiceStats stats : ServiceStats.all().values())
+      System.out.println(stats);
+  }
+
+  private class Worker extends Thread {
+
+    private final Random _random;
+    private final String _username;
+    private final String _home;
+    private final CountDownLatch _start;
+    private final Map<Operation, LatencyRecorder> _latencies =
+      new EnumMap<Operation, LatencyRecorder>(Operation.class);
+    /** Files this worker created and hasn't deleted, by directory */
+    private final Map<String, ArrayDeque<String>> _created = new HashMap<String, ArrayDeque<String>>();
+    private final Operation[] _choices;
+
+    /** Content for the next write or create, made outside of the timing */
+    private String _content;
+    /** Whether the worker holds a valid token */
+    private boolean _loggedIn;
+    private long _token;
+    private String _cwd;
+    private int _sequence;
+
+    Worker(int id, String username, CountDownLatch start) {
+      super("load worker " + id);
+      _random = new Random(_seed + id);
+      _username = username;
+      _home = home(username);
+      _cwd = _home;
+      _start = start;
+      for (Operation operation : Operation.values())
+        _latencies.put(operation, new LatencyRecorder());
+
+      List<Operation> choices = new ArrayList<Operation>();
+      for (Map.Entry<Operation, Integer> weight : _mix.entrySet())
+        for (int i = 0; i < weight.getValue(); i++)
+          choices.add(weight.getKey());
+      _choices = choices.toArray(new Operation[choices.size()]);
+    }
+
+    @Override
+    public void run() {
+      try {
+        _start.await();
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      while (!_stopped) {
+        // Until it has logged in, the worker keeps trying to
+        Operation operation = _loggedIn ? _choices[_random.nextInt(_choices.length)] : Operation.LOGIN;
+        if (operation == Operation.WRITE || operation == Operation.CREATE || operation == Operation.DELETE)
+          _content = payload(_random);
+        long start = System.nanoTime();
+        try {
+          operation = execute(operation);
+          if (_measuring)
+            _latencies.get(operation).record(System.nanoTime() - start);
+        } catch (InvalidTokenException e) {
+          _loggedIn = false;
+          if (_measuring)
+            _latencies.get(operation).error();
+        } catch (RuntimeException e) {
+          if (_measuring)
+            _latencies.get(operation).error();
+        }
+      }
+    }
+
+    private void login() {
+      LoginService service = new LoginService(_username, PASSWORD);
+      service.execute();
+      _token = service.result();
+      _cwd = _home;
+      _loggedIn = true;
+    }
+
+    private String pick(List<String> paths) {
+      String path = paths.get(_random.nextInt(paths.size()));
+      return path.isEmpty() ? _home : _home + "/" + path;
+    }
+
+    /**
+     * @return The operation actually executed: a delete with nothing to
+     * delete creates a file instead.
+     */
+    private Operation execute(Operation operation) {
+      switch (operation) {
+        case LOGIN:
+          login();
+          return operation;
+        case READ:
+          ReadFileService read = new ReadFileService(_token, pick(_plainFiles));
+          read.execute();
+          return operation;
+        case WRITE:
+          new WriteFileService(_token, pick(_plainFiles), _content).execute();
+          return operation;
+        case LIST:
+          ListDirectoryService list = new ListDirectoryService(_token, pick(_directories));
+          list.execute();
+          return operation;
+        case CD:
+          String directory = pick(_directories);
+          new ChangeDirectoryService(_token, directory).execute();
+          _cwd = directory;
+          return operation;
+        case DELETE:
+          ArrayDeque<String> created = _created.get(_cwd);
+          if (created != null && !created.isEmpty()) {
+            new DeleteFileService(_token, created.peek()).execute();
+            created.pop();
+            return operation;
+          }
+          return execute(Operation.CREATE);
+        case CREATE:
+        default:
+          String name = getName().replace(' ', '-') + "-" + _sequence++;
+          new CreateFileService(_token, name, "plainfile", _content).execute();
+          ArrayDeque<String> names = _created.get(_cwd);
+          if (names == null) {
+            names = new ArrayDeque<String>();
+            _created.put(_cwd, names);
+          }
+          names.push(name);
+          return Operation.CREATE;
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package pt.tecnico.myDrive;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pt.ist.fenixframework.Atomic;
+
+import pt.tecnico.myDrive.domain.FileSystem;
+
+/**
+ * Keeps the filesystem in an XML file between runs, for backends that don't
+ * persist it themselves, such as the in memory one. The file is set by the
+ * mydrive.snapshot property.
+ *
+ * The snapshot is only saved when the shell exits cleanly: changes made since
+ * the last clean exit are lost if the process is killed or crashes.
+ */
+public class Snapshot {
+  private static final Logger log = LogManager.getRootLogger();
+
+  private final File _file;
+
+  public Snapshot(File file) {
+    _file = file;
+  }
+
+  /**
+   * @return The snapshot set by the mydrive.snapshot property, or null if it
+   * isn't set.
+   */
+  public static Snapshot configured() {
+    String path = System.getProperty("mydrive.snapshot");
+    return path == null || path.isEmpty() ? null : new Snapshot(new File(path));
+  }
+
+  /**
+   * Rebuilds the filesystem from the snapshot, if there is one yet.
+   */
+  public void restore() throws IOException, JDOMException {
+    if (!_file.exists()) {
+      log.trace("No snapshot at " + _file + ", starting from an empty filesystem");
+      myDriveApplication.init();
+      return;
+    }
+
+    log.trace("Restoring snapshot " + _file);
+    restore(new SAXBuilder().build(_file));
+  }
+
+  @Atomic
+  private static void restore(Document document) {
+    FileSystem.getInstance().xmlImport(document.getRootElement());
+  }
+
+  /**
+   * Writes the filesystem to the snapshot. The snapshot is replaced only once
+   * it is fully written, so a failed save leaves the previous one in place.
+   */
+  public void save() throws IOException {
+    log.trace("Saving snapshot " + _file);
+    File temporary = new File(_file.getPath() + ".tmp");
+    try (OutputStream out = new FileOutputStream(temporary)) {
+      new XMLOutputter(Format.getPrettyFormat()).output(export(), out);
+    }
+    if (!temporary.renameTo(_file)) {
+      _file.delete();
+      if (!temporary.renameTo(_file))
+        throw new IOException("Couldn't replace snapshot " + _file);
+    }
+  }
+
+  @Atomic
+  private static Document export() {
+    return FileSystem.getInstance().xmlExport();
+  }
+}
@@ -16,8 +16,6 @@ import java.lang.reflect.Method;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.RuntimeException;
 
-import java.util.ArrayList;
-
 public class App extends App_Base {
 
   /** Placeholder for FenixFramework */
@@ -38,11 +36,6 @@ public class App extends App_Base {
     return super.getSize();
   }
 
-  @Override
-  public File getFile(ArrayList<String> tokens, User user) {
-    throw new NotADirectoryException(getName());
-  }
-
   @Override
   public void execute(User user, String[] arguments){
       user.checkExecutionPermissions(this);
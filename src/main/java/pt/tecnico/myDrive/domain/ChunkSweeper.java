@@ -0,0 +1,78 @@
+package pt.tecnico.myDrive.domain;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.FenixFramework;
+
+/**
+ * Removes, from time to time, the stored content chunks no file holds
+ * anymore. Files let go of chunks without writing them, so that those
+ * sharing popular content don't all conflict on a count kept in the chunk;
+ * what they let go of is found here instead, by visiting every file.
+ *
+ * Each sweep runs in a transaction of its own, which restarts if a file
+ * takes one of the chunks it is about to remove. Sweeps are as far apart as
+ * the mydrive.chunkSweep.interval property says, in seconds (60).
+ */
+public final class ChunkSweeper {
+  private static final Logger log = LogManager.getRootLogger();
+
+  private static final long INTERVAL = Long.getLong("mydrive.chunkSweep.interval", 60);
+
+  private static ScheduledExecutorService _sweeper;
+
+  private ChunkSweeper() {
+  }
+
+  /**
+   * Starts sweeping, unless it already has.
+   */
+  public static synchronized void start() {
+    if (_sweeper != null)
+      return;
+
+    _sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "myDrive chunk sweeper");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    _sweeper.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          int removed = sweep();
+          log.trace("Swept " + removed + " content chunks");
+        } catch (RuntimeException e) {
+          // A failed sweep leaves the chunks for the next one
+          log.warn("Content chunk sweep failed", e);
+        }
+      }
+    }, INTERVAL, INTERVAL, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Stops sweeping, letting a sweep under way finish.
+   */
+  public static synchronized void stop() {
+    if (_sweeper == null)
+      return;
+    _sweeper.shutdown();
+    _sweeper = null;
+  }
+
+  @Atomic
+  private static int sweep() {
+    FileSystem fs = FenixFramework.getDomainRoot().getFileSystem();
+    return fs == null ? 0 : fs.sweepChunks();
+  }
+}
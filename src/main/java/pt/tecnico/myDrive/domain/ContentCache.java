@@ -0,0 +1,229 @@
+package pt.tecnico.myDrive.domain;
+
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Cache of the content of plain files, bounded by the bytes the content
+ * takes rather than by number of files. Least recently used files are
+ * evicted first.
+ *
+ * Entries are keyed by the file and the version of its content, a
+ * modification stamp changed by every write. A transaction only gets an
+ * entry whose version matches the one it reads from the file, so it never
+ * sees content from another state of the file, even when the writer hasn't
+ * committed or ends up aborting. Writes and removals also drop the entry
+ * of the file right away, to free its memory.
+ *
+ * The cache is split in stripes by file, each an LRU map with its own lock
+ * and its own share of the capacity, so that threads reading different
+ * files don't wait for each other.
+ */
+public final class ContentCache implements ContentCacheMXBean {
+  private static final Logger log = LogManager.getRootLogger();
+
+  private static final long CAPACITY = Long.getLong("mydrive.contentCache.bytes", 32L << 20);
+  private static final int STRIPES = 16;
+
+  /** Estimated bytes taken by an entry besides its characters */
+  private static final int OVERHEAD = 96;
+
+  private static final ContentCache _instance = new ContentCache(CAPACITY);
+
+  private final long _capacity;
+  private final Stripe[] _stripes = new Stripe[STRIPES];
+  private final LongAdder _hits = new LongAdder();
+  private final LongAdder _misses = new LongAdder();
+  private final LongAdder _evictions = new LongAdder();
+
+  static {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(_instance,
+          new ObjectName("pt.tecnico.myDrive:type=ContentCache"));
+    } catch (JMException e) {
+      log.warn("Couldn't register the content cache: " + e.getMessage());
+    }
+  }
+
+  private ContentCache(long capacity) {
+    _capacity = capacity;
+    for (int i = 0; i < STRIPES; i++)
+      _stripes[i] = new Stripe(capacity / STRIPES);
+  }
+
+  public static ContentCache get() {
+    return _instance;
+  }
+
+  private static long weight(String content) {
+    return OVERHEAD + 2L * content.length();
+  }
+
+  private Stripe stripe(String file) {
+    int hash = file.hashCode();
+    return _stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+  }
+
+  /**
+   * @return The cached content of the file at that version, or null.
+   */
+  String get(String file, long version) {
+    Stripe stripe = stripe(file);
+    Entry entry;
+    synchronized (stripe) {
+      entry = stripe._entries.get(file);
+    }
+    if (entry == null || entry._version != version) {
+      _misses.increment();
+      return null;
+    }
+    _hits.increment();
+    return entry._content;
+  }
+
+  /**
+   * Caches the content of the file at that version, evicting the least
+   * recently used files of its stripe as needed. Content taking more than a
+   * quarter of a stripe's capacity isn't cached, so that a single large file
+   * can't flush the rest.
+   */
+  void put(String file, long version, String content) {
+    Stripe stripe = stripe(file);
+    long weight = weight(content);
+    if (weight > stripe._capacity / 4)
+      return;
+
+    int evicted = 0;
+    synchronized (stripe) {
+      Entry previous = stripe._entries.put(file, new Entry(version, content));
+      if (previous != null)
+        stripe._bytes -= weight(previous._content);
+      stripe._bytes += weight;
+
+      Iterator<Entry> eldest = stripe._entries.values().iterator();
+      while (stripe._bytes > stripe._capacity && eldest.hasNext()) {
+        Entry entry = eldest.next();
+        eldest.remove();
+        stripe._bytes -= weight(entry._content);
+        evicted++;
+      }
+    }
+    _evictions.add(evicted);
+  }
+
+  /**
+   * Drops the cached content of the file, if any.
+   */
+  void invalidate(String file) {
+    Stripe stripe = stripe(file);
+    synchronized (stripe) {
+      Entry entry = stripe._entries.remove(file);
+      if (entry != null)
+        stripe._bytes -= weight(entry._content);
+    }
+  }
+
+  @Override
+  public long getHits() {
+    return _hits.sum();
+  }
+
+  @Override
+  public long getMisses() {
+    return _misses.sum();
+  }
+
+  @Override
+  public long getEvictions() {
+    return _evictions.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hits = getHits();
+    long reads = hits + getMisses();
+    return reads == 0 ? 0 : (double) hits / reads;
+  }
+
+  @Override
+  public int getEntries() {
+    int entries = 0;
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        entries += stripe._entries.size();
+      }
+    }
+    return entries;
+  }
+
+  @Override
+  public long getBytes() {
+    long bytes = 0;
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        bytes += stripe._bytes;
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public long getCapacity() {
+    return _capacity;
+  }
+
+  @Override
+  public void clear() {
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        stripe._entries.clear();
+        stripe._bytes = 0;
+      }
+    }
+  }
+
+  @Override
+  public void reset() {
+    _hits.reset();
+    _misses.reset();
+    _evictions.reset();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("content cache: %d files, %d/%d bytes, %d hits, %d misses (%.1f%%), %d evictions",
+        getEntries(), getBytes(), _capacity, getHits(), getMisses(), 100 * getHitRatio(), getEvictions());
+  }
+
+  /**
+   * Files whose key hashes to the stripe, least recently used first.
+   */
+  private static final class Stripe {
+    private final long _capacity;
+    private final Map<String, Entry> _entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long _bytes;
+
+    Stripe(long capacity) {
+      _capacity = capacity;
+    }
+  }
+
+  private static final class Entry {
+    private final long _version;
+    private final String _content;
+
+    Entry(long version, String content) {
+      _version = version;
+      _content = content;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package pt.tecnico.myDrive.domain;
+
+/**
+ * Management interface of the content cache, registered as
+ * pt.tecnico.myDrive:type=ContentCache.
+ */
+public interface ContentCacheMXBean {
+
+  /** @return Number of reads served from the cache */
+  long getHits();
+
+  /** @return Number of reads that had to load the content */
+  long getMisses();
+
+  /** @return Number of entries evicted to make room for others */
+  long getEvictions();
+
+  /** @return Hits per read */
+  double getHitRatio();
+
+  /** @return Number of files cached */
+  int getEntries();
+
+  /** @return Estimated bytes taken by the cached content */
+  long getBytes();
+
+  /** @return Maximum bytes the cached content may take */
+  long getCapacity();
+
+  /** Drops every entry */
+  void clear();
+
+  /** Zeroes hits, misses and evictions */
+  void reset();
+}
@@ -0,0 +1,180 @@
+package pt.tecnico.myDrive.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import pt.tecnico.myDrive.exceptions.MethodDeniedException;
+
+/**
+ * A piece of the content of plain files. Files keep their content split in
+ * chunks of PlainFile.CHUNK_SIZE characters, so that only the chunks actually
+ * read or written are loaded.
+ *
+ * Chunks are stored by the SHA-256 hash of their data and shared by every
+ * file, and every position in a file, holding the same data. They are never
+ * changed once created. Holding or letting go of a stored chunk doesn't write
+ * it, so that files sharing popular content don't conflict on it: chunks no
+ * file holds anymore are removed by ChunkSweeper. The References slot is left
+ * from when they were counted, and is no longer used.
+ *
+ * Chunks of at least COMPRESSION_THRESHOLD characters are stored deflated,
+ * unless that doesn't make them smaller, and inflated whenever their data is
+ * read. Smaller chunks skip the codec.
+ */
+public class ContentChunk extends ContentChunk_Base {
+
+  /**
+   * Length, in characters, from which chunks are compressed. Set through the
+   * mydrive.compression.threshold property; anything above the chunk size
+   * turns compression off.
+   */
+  static final int COMPRESSION_THRESHOLD = Integer.getInteger("mydrive.compression.threshold", 1024);
+
+  /** Placeholder for FenixFramework */
+  protected ContentChunk() {
+    super();
+  }
+
+  ContentChunk(String data, String hash) {
+    super();
+    super.setHash(hash);
+    super.setLength(data.length());
+
+    byte[] compressed = null;
+    if (data.length() >= COMPRESSION_THRESHOLD) {
+      byte[] raw = data.getBytes(StandardCharsets.UTF_8);
+      compressed = deflate(raw);
+      if (compressed.length >= raw.length)
+        compressed = null;
+    }
+    if (compressed != null) {
+      super.setCompressedData(compressed);
+      super.setCompressed(true);
+    } else {
+      super.setData(data);
+    }
+  }
+
+  private static byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater();
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished())
+        out.write(buffer, 0, deflater.deflate(buffer));
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] data) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+        if (count == 0 && inflater.needsInput())
+          throw new IllegalStateException("Truncated compressed chunk");
+        out.write(buffer, 0, count);
+      }
+      return out.toByteArray();
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Corrupt compressed chunk", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * @return The data of the chunk, inflated if it is stored compressed.
+   */
+  @Override
+  public String getData() {
+    if (super.getCompressed())
+      return new String(inflate(super.getCompressedData()), StandardCharsets.UTF_8);
+    return super.getData();
+  }
+
+  /**
+   * @return Number of bytes the data takes as stored: compressed, or encoded
+   * in UTF-8.
+   */
+  public int getStoredSize() {
+    if (super.getCompressed())
+      return super.getCompressedData().length;
+    return super.getData().getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  /**
+   * @return The hexadecimal SHA-256 hash of the UTF-8 encoding of data.
+   */
+  static String hash(String data) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+
+    byte[] hash = digest.digest(data.getBytes(StandardCharsets.UTF_8));
+    StringBuilder hex = new StringBuilder(hash.length * 2);
+    for (byte b : hash)
+      hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    return hex.toString();
+  }
+
+  @Override
+  public Integer getLength() {
+    Integer length = super.getLength();
+    return length != null ? length : super.getData().length();
+  }
+
+  public boolean isCompressed() {
+    return super.getCompressed();
+  }
+
+  void remove() {
+    deleteDomainObject();
+  }
+
+  @Override
+  public void setData(String data) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setCompressedData(byte[] data) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setCompressed(boolean compressed) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setLength(Integer length) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setHash(String hash) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setReferences(Integer references) {
+    throw new MethodDeniedException();
+  }
+}
@@ -0,0 +1,109 @@
+package pt.tecnico.myDrive.domain;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.Atomic.TxMode;
+
+/**
+ * Reads part of the content of a plain file one chunk at a time. Permissions
+ * are checked when the reader is opened; each chunk is then loaded in a read
+ * transaction of its own, so no transaction lasts longer than a chunk and at
+ * most one chunk is held in memory.
+ *
+ * Chunks are read as they are at the time they are loaded: a file written
+ * while it is being read may be seen partly before and partly after the
+ * write. The reader never goes past the size the file had when it was opened.
+ */
+public class ContentReader extends Reader {
+
+  private final PlainFile _file;
+  private final int _end;
+  /** Offset of the first character not yet loaded */
+  private int _position;
+  /** Loaded characters not yet read */
+  private String _pending = "";
+  private int _pendingOffset;
+  private boolean _closed;
+
+  ContentReader(PlainFile file, int offset, int end) {
+    _file = file;
+    _position = offset;
+    _end = end;
+  }
+
+  @Atomic(mode = TxMode.SPECULATIVE_READ)
+  private String load(int chunk) {
+    return _file.readChunk(chunk);
+  }
+
+  private void ensureOpen() throws IOException {
+    if (_closed)
+      throw new IOException("Reader is closed");
+  }
+
+  /**
+   * @return The next characters of the content, at most a chunk of them, or
+   * null once it has all been read.
+   */
+  public String readChunk() throws IOException {
+    ensureOpen();
+    if (_pendingOffset < _pending.length()) {
+      String rest = _pending.substring(_pendingOffset);
+      _pending = "";
+      _pendingOffset = 0;
+      return rest;
+    }
+    if (_position >= _end)
+      return null;
+
+    int chunk = _position / PlainFile.CHUNK_SIZE;
+    int start = chunk * PlainFile.CHUNK_SIZE;
+    String data = load(chunk);
+    // The file shrank since the reader was opened
+    if (data == null || _position - start >= data.length()) {
+      _position = _end;
+      return null;
+    }
+
+    String part = data.substring(_position - start, Math.min(data.length(), _end - start));
+    _position += part.length();
+    return part;
+  }
+
+  /**
+   * Hands every remaining chunk of the content to consumer, in order.
+   */
+  public void forEachChunk(Consumer<String> consumer) throws IOException {
+    for (String chunk = readChunk(); chunk != null; chunk = readChunk())
+      consumer.accept(chunk);
+  }
+
+  @Override
+  public int read(char[] buffer, int offset, int length) throws IOException {
+    ensureOpen();
+    if (length == 0)
+      return 0;
+    if (_pendingOffset == _pending.length()) {
+      String next = readChunk();
+      if (next == null)
+        return -1;
+      _pending = next;
+      _pendingOffset = 0;
+    }
+
+    int count = Math.min(length, _pending.length() - _pendingOffset);
+    _pending.getChars(_pendingOffset, _pendingOffset + count, buffer, offset);
+    _pendingOffset += count;
+    return count;
+  }
+
+  @Override
+  public void close() {
+    _closed = true;
+    _pending = "";
+    _pendingOffset = 0;
+  }
+}
@@ -15,14 +15,21 @@ import pt.tecnico.myDrive.exceptions.CannotExecuteDirectoryException;
 
 import pt.tecnico.myDrive.exceptions.InsufficientPermissionsException;
 
+import pt.ist.fenixframework.adt.bplustree.BPlusTree;
+
 import java.util.*;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.RuntimeException;
 
 public class Directory extends Directory_Base {
 
+  /**
+   * Path of the directory, built the first time it is requested. It is never
+   * invalidated: directories can't be renamed nor moved, so their path never
+   * changes.
+   */
+  private volatile String _path;
+
   /** Placeholder for FenixFramework */
   protected Directory () {
     super();
@@ -32,6 +39,20 @@ public class Directory extends Directory_Base {
     init(fs, fs.requestId(), name, parent, owner);
   }
 
+  /**
+   * Besides the basic file initialization, a directory records the length of
+   * its path, so that it doesn't have to be computed by walking up to the
+   * root.
+   */
+  @Override
+  protected void init(FileSystem fs, Integer id, String name, Directory parent, User owner) {
+    super.init(fs, id, name, parent, owner);
+    if (isTopLevelDirectory())
+      super.setPathLength(getName().length());
+    else
+      super.setPathLength(getParent().getPrefixLength() + 1 + getName().length());
+  }
+
   /**
    * A top-level directory is a directory which its parent is itself.
    * An example of a top-level directory would be the root directory.
@@ -51,31 +72,78 @@ public class Directory extends Directory_Base {
       return this;
     else if(filename.equals(".."))
       return getParent();
-    else
-      for (File file : super.getFileSet()) {
-        if (filename.equals(file.getName()))
-          return file;
-      }
-    throw new FileUnknownException(filename);
+
+    File file = getIndex().get(filename);
+    if (file == null)
+      throw new FileUnknownException(filename);
+    return file;
   }
 
-  @Override
-  public File getFile(ArrayList<String> tokens, User user) {
-    // Terminal case
-    File file;
-    if(tokens.size() > 1){
-      String name = tokens.remove(0);
-      file = getFileByName(name).getFile(tokens, user);
-      user.checkExecutionPermissions(file);
-      return file;
-    }else if(tokens.size() == 1){
-      file = getFileByName(tokens.get(0)).getFileObject(user);
-      user.checkReadPermissions(file);
-      return file;
-    }else{
-      throw new RuntimeException("Shouldn't happen! (Wrongly formated token array in get File)");
+  /**
+   * The index maps the name of each file inside the directory to the file
+   * itself. Directories persisted before the index existed get theirs built
+   * the first time it is needed.
+   *
+   * @return The name to file index of this directory.
+   */
+  @SuppressWarnings("unchecked")
+  private BPlusTree<File> getIndex() {
+    BPlusTree<File> index = super.getFileIndex();
+    if (index == null) {
+      index = new BPlusTree<File>();
+      for (File file : super.getFileSet())
+        index.insert(file.getName(), file);
+      super.setFileIndex(index);
     }
+    return index;
+  }
+
+  /**
+   * Forgets the index, deleting its nodes, as in directories persisted before
+   * it existed. The next lookup builds it again.
+   */
+  void dropIndex() {
+    BPlusTree<File> index = super.getFileIndex();
+    if (index != null) {
+      super.setFileIndex(null);
+      index.delete();
+    }
+  }
+
+  /**
+   * Registers file in the directory index. Called whenever a file is placed
+   * inside this directory.
+   */
+  protected void indexFile(File file) {
+    getIndex().insert(file.getName(), file);
+    modified();
   }
+
+  /**
+   * Removes file from the directory index. Called whenever a file leaves
+   * this directory.
+   */
+  protected void unindexFile(File file) {
+    getIndex().remove(file.getName());
+    modified();
+  }
+
+  /**
+   * @return The stamp of the last change to the files inside the directory.
+   */
+  long getModificationStamp() {
+    Long stamp = super.getStamp();
+    return stamp == null ? 0 : stamp;
+  }
+
+  /**
+   * Marks the directory as modified, which invalidates every cached path
+   * resolution that looked files up in it.
+   */
+  protected void modified() {
+    super.setStamp(ModificationStamps.next());
+  }
+
   /**
    * The path of a directory is a string that specifies how to reach itself by
    * going through other directories in a filesystem.
@@ -84,13 +152,46 @@ public class Directory extends Directory_Base {
    */
 
   @Override
-  public String getPath() { return isTopLevelDirectory() ? getName() : getPathHelper(); }
+  public String getPath() {
+    String path = _path;
+    if (path == null) {
+      path = isTopLevelDirectory() ? getName() : getPrefix() + "/" + getName();
+      _path = path;
+    }
+    return path;
+  }
+
+  /**
+   * The prefix of a directory is what comes before the name of the files
+   * inside it in their paths. It's the same as the directory path, except
+   * for top-level directories, whose files are directly under "/".
+   */
+  private String getPrefix() {
+    return getParent().isTopLevelDirectory() ? "" : getParent().getPath();
+  }
+
+  private int getPrefixLength() {
+    return isTopLevelDirectory() ? 0 : getPathLength();
+  }
+
+  /**
+   * @return Length of the directory path.
+   */
+  @Override
+  public Integer getPathLength() {
+    Integer length = super.getPathLength();
+    if (length == null)
+      return getPath().length();
+    return length;
+  }
 
   /**
-   * Simple helper function to call when the path needs to be processed
+   * Forgets the recorded path length and path, as in directories persisted
+   * before they were recorded.
    */
-  private String getPathHelper() {
-    return (isTopLevelDirectory()) ? "" : getParent().getPathHelper()+ "/" + getName();
+  void forgetPathLength() {
+    super.setPathLength(null);
+    _path = null;
   }
 
   /**
@@ -99,109 +200,106 @@ public class Directory extends Directory_Base {
   private String listFilesSimple(User user) {
     user.checkReadPermissions(this);
 
-    Comparator<File> comp = new Comparator<File>()
-    {
-      public int compare(File f1, File f2)
-      {
-        return f1.toString().compareTo(f2.toString());
-      }
-    };
-    try {
-      return listFilesGenericSorted(Class.forName("pt.tecnico.myDrive.domain.File").getMethod("getName"), comp);
-    } catch(NoSuchMethodException | ClassNotFoundException e){
-      throw new RuntimeException("Unknown method or class on list file");
-    }
+    StringBuilder list = new StringBuilder();
+    list.append(".\n..\n");
+    for (File file : getIndex())
+      list.append(file.getName()).append('\n');
+    return list.toString();
   }
 
   /**
+   * The index keeps the files sorted by name, so they are listed in the
+   * order they are stored in, with no sorting.
+   *
    * @return List of the files inside the directory using their toString method.
    */
   public String listFilesAll(User user) {
     user.checkReadPermissions(this);
 
-    Comparator<File> comp = new Comparator<File>()
-    {
-      public int compare(File f1, File f2)
-      {
-        return f1.getName().compareTo(f2.getName());
-      }
-    };
-    try {
-      return listFilesGenericSorted (Class.forName("pt.tecnico.myDrive.domain.File").getMethod("toString"), comp);
-    } catch(NoSuchMethodException | ClassNotFoundException e){
-      throw new RuntimeException("Unknown method or class on list file");
-    }
+    /**
+     * The directory itself and its parent are listed first, respectively as
+     * "." and ".."
+     */
+    StringBuilder list = new StringBuilder();
+    list.append(toString().replaceAll(getName(), ".")).append('\n');
+    list.append(getParent().toString().replaceAll(getParent().getName(), "..")).append('\n');
+    for (File file : getIndex())
+      list.append(file.toString()).append('\n');
+    return list.toString();
   }
 
   /**
-   * List files in a generic way.
-   * The way the listing is done is by applying method to the files, hence,
-   * the list will be of the form:
+   * Lists, sorted by name, the files whose names come after cursor.
    *
-   * apply(method, file1)
-   * apply(method, file2)
-   * ...
-   * apply(method, fileN)
+   * The index only offers in-order iteration, not seeking by name, so this
+   * takes one step per file named up to cursor plus one per file listed:
+   * O(p + k), where p is the position of cursor.
    *
-   * @param method
-   * @return A list containing the description given my method
-   * of the files inside the directory.
+   * @param cursor name to list after, or null to list from the first file.
+   * @param limit maximum number of files to list.
+   * @return At most limit files, sorted by name.
    */
-  private String listFilesGeneric (Method method) {
-    /**
-     * Replaces the string generated by the application of 'method' to the
-     * 'this' directory and parent directories' respectively for "." and ".."
-     */
-    try {
-      String self = ((String) method.invoke(this)).replaceAll(getName(), ".") + "\n";
-      String parent = ((String) method.invoke(getParent())).replaceAll(getParent().getName(), "..") + "\n";
-      String list = self + parent;
-      for (File file: super.getFileSet())
-        list += method.invoke(file) + "\n";
-      return list;
-    } catch(InvocationTargetException e) {
-      throw new RuntimeException("InvocationTargetException on list file");
-    } catch(IllegalAccessException e) {
-      throw new RuntimeException("IllegalAccessException on list file");
-    }
+  public List<File> listFilesAfter(String cursor, int limit, User user) {
+    user.checkReadPermissions(this);
+
+    List<File> files = new ArrayList<File>();
+    Iterator<File> index = getIndex().iterator();
+    File file = cursor == null ? next(index) : skipTo(index, cursor, true);
+    for (; file != null && files.size() < limit; file = next(index))
+      files.add(file);
+    return files;
   }
 
   /**
-   * List files in a generic way and sorted according to a Comparator.
-   * The files are first sorted using the Comparator and then listed.
-   * The way the listing is done is by applying method to the files, hence,
-   * the list will be of the form:
+   * Lists, sorted by name, the files whose names are in the range [from, to[,
+   * in O(p + k) steps, where p is the position of from.
    *
-   * apply(method, file1)
-   * apply(method, file2)
-   * ...
-   * apply(method, fileN)
+   * @param from first name of the range, or null for no lower bound.
+   * @param to name right after the range, or null for no upper bound.
+   */
+  public List<File> listFilesBetween(String from, String to, User user) {
+    user.checkReadPermissions(this);
+
+    List<File> files = new ArrayList<File>();
+    Iterator<File> index = getIndex().iterator();
+    File file = from == null ? next(index) : skipTo(index, from, false);
+    for (; file != null && (to == null || file.getName().compareTo(to) < 0); file = next(index))
+      files.add(file);
+    return files;
+  }
+
+  /**
+   * Lists, sorted by name, the files whose names start with prefix, in
+   * O(p + k) steps, where p is the position of prefix.
+   */
+  public List<File> listFilesWithPrefix(String prefix, User user) {
+    user.checkReadPermissions(this);
+
+    List<File> files = new ArrayList<File>();
+    Iterator<File> index = getIndex().iterator();
+    for (File file = skipTo(index, prefix, false);
+        file != null && file.getName().startsWith(prefix); file = next(index))
+      files.add(file);
+    return files;
+  }
+
+  private static File next(Iterator<File> index) {
+    return index.hasNext() ? index.next() : null;
+  }
+
+  /**
+   * Advances index to the first file named after name or, if after isn't
+   * set, to the first file named name or after it.
    *
-   * @param method
-   * @param comparator
-   * @return A sorted list containing the description given my method
-   * of the files inside the directory.
+   * @return That file, or null if there is none.
    */
-  private String listFilesGenericSorted (Method method, Comparator<File> comparator) {
-    /**
-     * Replaces the string generated by the application of 'method' to the
-     * 'this' directory and parent directories' respectively for "." and ".."
-     */
-    try {
-      String self = ((String) method.invoke(this)).replaceAll(getName(), ".") + "\n";
-      String parent = ((String) method.invoke(getParent())).replaceAll(getParent().getName(), "..") + "\n";
-      String list = self + parent;
-      TreeSet<File> tree = new TreeSet<File>(comparator);
-      for (File file: super.getFileSet())
-        tree.add(file);
-      for(File file: tree)
-        list += method.invoke(file) + "\n";
-      return list;
-    } catch(InvocationTargetException e) {
-      throw new RuntimeException("InvocationTargetException on list file");
-    } catch(IllegalAccessException e) {
-      throw new RuntimeException("IllegalAccessException on list file");
+  private static File skipTo(Iterator<File> index, String name, boolean after) {
+    for (File file = next(index); file != null; file = next(index)) {
+      int comparison = file.getName().compareTo(name);
+      if (comparison > 0 || (!after && comparison == 0))
+        return file;
     }
+    return null;
   }
 
   /**
@@ -210,16 +308,13 @@ public class Directory extends Directory_Base {
    * @return The size of a directory.
    */
   @Override
-  public int getSize() { return 2 + super.getFileSet().size(); }
+  public int getSize() { return 2 + getIndex().size(); }
 
   /**
    * @return True if file is in directory, false otherwise.
    */
   private boolean hasFile(String filename) {
-    for (File file : super.getFileSet())
-      if (filename.equals(file.getName()))
-        return true;
-    return false;
+    return getIndex().containsKey(filename);
   }
 
   /**
@@ -251,6 +346,31 @@ public class Directory extends Directory_Base {
     throw new MethodDeniedException();
   }
 
+  @Override
+  public void setPathLength(Integer length) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public Long getStamp() {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setStamp(Long stamp) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public BPlusTree getFileIndex() {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setFileIndex(BPlusTree index) {
+    throw new MethodDeniedException();
+  }
+
   @Override
   protected void remove() {
     removeAllFiles();
@@ -262,6 +382,7 @@ public class Directory extends Directory_Base {
   protected void nullifyRelations() {
     super.nullifyRelations();
     setUser(null);
+    dropIndex();
   }
 
   /**
@@ -304,35 +425,45 @@ public class Directory extends Directory_Base {
    */
 
   public Directory createDirectory(String name, User owner){
-    owner.checkWritePermissions(this);
-    checkFileUnique(name);
+    checkNewFile(name, owner);
     return new Directory(getFileSystem$6p(), name, this, owner);
   }
 
   public PlainFile createPlainFile(String name, User owner){
-    owner.checkWritePermissions(this);
-    checkFileUnique(name);
+    checkNewFile(name, owner);
     return new PlainFile(getFileSystem$6p(), name, this, owner);
   }
 
   public PlainFile createPlainFile(String name, User owner, String data){
-    owner.checkWritePermissions(this);
-    checkFileUnique(name);
-    PlainFile pf = new PlainFile (getFileSystem$6p(), name, this, owner);
-    pf.setData(data, owner);
-    return pf;
+    checkNewFile(name, owner);
+    return new PlainFile(getFileSystem$6p(), name, this, owner, data);
   }
 
   public App createApp(String name, User owner){
-    owner.checkWritePermissions(this);
-    checkFileUnique(name);
+    checkNewFile(name, owner);
     return new App(getFileSystem$6p(), name, this, owner);
   }
 
+  public App createApp(String name, User owner, String data){
+    checkNewFile(name, owner);
+    return new App(getFileSystem$6p(), name, this, owner, data);
+  }
+
   public Link createLink(String name, User owner, String data){
+    checkNewFile(name, owner);
+    return new Link(getFileSystem$6p(), name, this, owner, data);
+  }
+
+  /**
+   * Checks everything creating a file named name can fail on, before the
+   * file is constructed: a file failing its checks once constructed would be
+   * left behind, unreachable, if the transaction goes on to commit.
+   */
+  private void checkNewFile(String name, User owner) {
     owner.checkWritePermissions(this);
+    File.checkFilepathSize(this, name);
+    File.checkFilename(name);
     checkFileUnique(name);
-    return new Link(getFileSystem$6p(), name, this, owner, data);
   }
 
   /**
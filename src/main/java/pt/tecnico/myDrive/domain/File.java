@@ -11,8 +11,7 @@ import pt.tecnico.myDrive.exceptions.InvalidFilepathSizeException;
 import pt.tecnico.myDrive.exceptions.NoExtensionException;
 import pt.tecnico.myDrive.exceptions.NoAssociatedAppException;
 
-import java.util.ArrayList;
-
+import org.jdom2.Attribute;
 import org.jdom2.Element;
 import java.io.UnsupportedEncodingException;
 import java.security.acl.Owner;
@@ -43,6 +42,11 @@ public abstract class File extends File_Base {
     super.setName(name);
     setParent(parent);
     super.setOwner(owner);
+
+    // The root directory is its own parent, so it can't be indexed in it
+    if (getParent() != null && getParent() != this)
+      getParent().indexFile(this);
+
     super.setLastModified(new DateTime());
 
     // File's initial permissions are the one's defined in the user's umask.
@@ -55,7 +59,7 @@ public abstract class File extends File_Base {
    * with a '$'
    * @param filename
    */
-  private void checkFilename(String filename) {
+  static void checkFilename(String filename) {
 
     /**
      * File names can't have '$' as first character, since that's how an
@@ -77,9 +81,9 @@ public abstract class File extends File_Base {
    * Verifies if filepath has atmost 1024 characters
    * @param filepath
    */
-  private void checkFilepathSize(Directory parent, String filename) {
-    String filepath = filename + (parent == null ? "" : parent.getPath());
-    if(filepath.length() >= 1024) throw new InvalidFilepathSizeException(1024);
+  static void checkFilepathSize(Directory parent, String filename) {
+    int length = filename.length() + (parent == null ? 0 : parent.getPathLength());
+    if(length >= 1024) throw new InvalidFilepathSizeException(1024);
   }
 
 
@@ -101,6 +105,8 @@ public abstract class File extends File_Base {
    * object and eventual others.
    */
   protected void nullifyRelations() {
+    if (getParent() != null && getParent() != this)
+      getParent().unindexFile(this);
     super.setOwner(null);
     super.setParent(null);
     super.setFileSystem(null);
@@ -136,8 +142,6 @@ public abstract class File extends File_Base {
     return getUserPermission() + getOthersPermission() + " " + getName();
   }
 
-  public abstract File getFile(ArrayList<String> tokens, User user);
-
   public File getFileObject(User user) {
     return this;
   }
@@ -147,13 +151,16 @@ public abstract class File extends File_Base {
   }
 
   public void xmlImport(Element dirElement) throws UnsupportedEncodingException, DataConversionException {
-    super.setId(dirElement.getAttribute("id").getIntValue());
+    Attribute id = dirElement.getAttribute("id");
+    if (id != null)
+      super.setId(id.getIntValue());
 
     Element perm = dirElement.getChild("perm");
     if (perm != null){
       String userPermission = new String(perm.getText().getBytes("UTF-8"));
       super.setUserPermission(userPermission.substring(0,4));
       super.setOthersPermission(userPermission.substring(4,8));
+      getParent().modified();
     }
   }
 
@@ -7,6 +7,11 @@ import pt.tecnico.myDrive.domain.User;
 import pt.tecnico.myDrive.domain.File;
 import pt.tecnico.myDrive.domain.PlainFile;
 import pt.tecnico.myDrive.services.dto.EnvironmentVariableDTO;
+import pt.tecnico.myDrive.services.dto.BatchOperationDTO;
+import pt.tecnico.myDrive.services.dto.BatchResultDTO;
+import pt.tecnico.myDrive.services.dto.ContentStoreStatsDTO;
+import pt.tecnico.myDrive.services.dto.DirectoryPageDTO;
+import pt.tecnico.myDrive.services.dto.FileEntryDTO;
 import pt.ist.fenixframework.DomainRoot;
 
 // Domain Exceptions
@@ -18,6 +23,7 @@ import pt.tecnico.myDrive.visitors.PlainFileVisitor;
 import pt.tecnico.myDrive.visitors.AppVisitor;
 import pt.tecnico.myDrive.visitors.LinkVisitor;
 import pt.tecnico.myDrive.visitors.XMLExporterVisitor;
+import pt.tecnico.myDrive.visitors.FileEntryVisitor;
 
 // Jdom2
 import org.jdom2.Element;
@@ -30,6 +36,7 @@ import java.io.UnsupportedEncodingException;
 // Fenix Framework
 import pt.ist.fenixframework.Atomic;
 import pt.ist.fenixframework.FenixFramework;
+import pt.ist.fenixframework.adt.bplustree.BPlusTree;
 
 // JodaTime
 import org.joda.time.DateTime;
@@ -43,9 +50,16 @@ import java.lang.reflect.InvocationTargetException;
 // Util imports
 import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
 import java.util.Random;
 import java.util.Set;
 import java.util.List;
+import java.util.Map;
 
 import java.math.BigInteger;
 
@@ -53,47 +67,53 @@ public class FileSystem extends FileSystem_Base {
 
   private static final Logger log = LogManager.getRootLogger();
 
+  /** Maximum number of expired logins removed on each login */
+  static final int REAP_BATCH = 32;
+
 
   /**
    * FileSystem temporary state variables
-   * _login: keeps track of the current login in use
+   * _session: keeps track of the login in use by each thread, so that
+   * requests running concurrently don't see each other's session
    */
 
-  private Login _login;
+  private static final ThreadLocal<Login> _session = new ThreadLocal<Login>();
+
+  /**
+   * _readOnly: set while the calling thread runs a read transaction, in
+   * which sessions are started without extending their token
+   * _staleToken: token the read transaction left due to be extended
+   */
+  private static final ThreadLocal<Boolean> _readOnly = new ThreadLocal<Boolean>();
+  private static final ThreadLocal<Long> _staleToken = new ThreadLocal<Long>();
 
   private FileSystem() {
     log.trace("Constructing new FileSystem");
     super.setRoot(FenixFramework.getDomainRoot());
-    try {
-      init();
-    } catch(RootDirectoryNotFoundException e) {
-      System.out.println("-- Couldn't find Root Directory. Rebuilding File System");
-      reset();
-    }
+    // Set only here: ids keep growing across resets, as threads may still
+    // hold reserved ones
+    super.setIdCounter(0);
+    init();
   }
 
   /**
+   * Called by every service, so it only reads the filesystem and, once it
+   * has been initialized, its root directory.
+   *
    * @return current instance of FileSystem if stored, or a new FileSystem otherwise
    */
   public static FileSystem getInstance() {
-    log.trace("FileSystem instance requested");
     FileSystem fs = FenixFramework.getDomainRoot().getFileSystem();
+    if (fs == null)
+      return new FileSystem();
 
-    if (fs != null) {
-      log.trace("Returning existing FileSystem instance");
-      try {
-        fs.init();
-      } catch(Exception e) {
-        System.out.println(e.getMessage());
-      }
-      return fs;
-    }
-
-    log.trace("Returning new FileSystem instance");
-    return new FileSystem();
+    fs.init();
+    return fs;
   }
 
   public void cleanup() {
+    ResolvedPathCache.clear();
+    ContentCache.get().clear();
     try{
       File file = getFileByPath("/", super.getRootUser(), super.getRootDirectory());
       removeFile(file, super.getRootUser());
@@ -119,25 +139,20 @@ public class FileSystem extends FileSystem_Base {
   }
 
   /**
-   * Does basic FileSystem initialization
+   * A filesystem is initialized once it has its root directory, which is
+   * created along with the rest of its initial data.
+   */
+  private boolean isInitialized() {
+    return super.getRootDirectory() != null;
+  }
+
+  /**
+   * Does basic FileSystem initialization: creates the initial data, unless
+   * the filesystem already has it.
    */
   public void init() {
-    /**
-     * Creation of root directory and home folder if there are no files,
-     * means we're initializing a new filesystem
-     * If the filesystem is initialized we search for the root user and
-     * root directory
-     */
-
-    if (super.getFilesSet().size() == 0) {
+    if (!isInitialized())
       cleanInit();
-    } else{
-      log.trace("Initializing existing FileSystem");
-      if (super.getRootDirectory() == null) {
-        throw new RootDirectoryNotFoundException();
-      }
-    }
-    log.trace("Finished FileSystem initialization");
   }
 
 
@@ -147,7 +162,6 @@ public class FileSystem extends FileSystem_Base {
    */
   private void cleanInit() {
     log.trace("Initializing new FileSystem");
-    super.setIdCounter(0);
 
     log.trace("Creating root user");
     RootUser rootUser = new RootUser(this);
@@ -198,12 +212,48 @@ public class FileSystem extends FileSystem_Base {
    * Returns null if no user is found. Does not throw exception here
    */
   public User getUserByUsername(String username) {
-    for (User user: super.getUsersSet()) {
-      if (user.getUsername().equalsIgnoreCase(username)) {
-        return user;
-      }
+    return usersByName().get(usernameKey(username));
+  }
+
+  /**
+   * Usernames are compared ignoring case, so users are indexed by their
+   * lower case username.
+   */
+  private static String usernameKey(String username) {
+    return username.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Users indexed by username. Built from the users set the first time it is
+   * needed, for filesystems persisted before it existed.
+   */
+  @SuppressWarnings("unchecked")
+  private BPlusTree<User> usersByName() {
+    BPlusTree<User> index = super.getUserIndex();
+    if (index == null) {
+      index = new BPlusTree<User>();
+      for (User user : super.getUsersSet())
+        index.insert(usernameKey(user.getUsername()), user);
+      super.setUserIndex(index);
     }
-    return null;
+    return index;
+  }
+
+  /**
+   * Registers user in the username index. Called when a user is created.
+   */
+  void indexUser(User user) {
+    usersByName().insert(usernameKey(user.getUsername()), user);
+  }
+
+  /**
+   * Removes user from the username index. Called when a user is removed.
+   */
+  void unindexUser(User user) {
+    BPlusTree<User> index = usersByName();
+    String key = usernameKey(user.getUsername());
+    if (index.get(key) == user)
+      index.remove(key);
   }
 
   /**
@@ -250,8 +300,38 @@ public class FileSystem extends FileSystem_Base {
    * ****************************************************************************
    */
 
+  /**
+   * @return A new file id. Ids are handed out by IdAllocator, so that file
+   * creations don't all write the id counter.
+   */
   public int requestId() {
-    super.setIdCounter(super.getIdCounter()+1);
+    return IdAllocator.next(this);
+  }
+
+  /**
+   * Moves the id counter, the highest id handed out so far, forward.
+   *
+   * @param count number of ids to reserve
+   * @return The first of the count ids reserved
+   */
+  int reserveIds(int count) {
+    int first = super.getIdCounter() + 1;
+    super.setIdCounter(first + count - 1);
+    return first;
+  }
+
+  /**
+   * Moves the id counter forward to id, unless it is already past it.
+   */
+  void raiseIdCounter(int id) {
+    if (super.getIdCounter() < id)
+      super.setIdCounter(id);
+  }
+
+  /**
+   * @return The id counter: no id above it has been handed out.
+   */
+  int getHighestId() {
     return super.getIdCounter();
   }
 
@@ -271,6 +351,10 @@ public class FileSystem extends FileSystem_Base {
     return parent.createApp(name, owner);
   }
 
+  private App createApp(String name, Directory parent, User owner, String data) {
+    return parent.createApp(name, owner, data);
+  }
+
   private Link createLink(String name, Directory parent, User owner, String data) {
     return parent.createLink(name, owner, data);
   }
@@ -297,7 +381,7 @@ public class FileSystem extends FileSystem_Base {
    */
   public void changeDirectory(String dirName, User user, Directory directory) {
     Directory d = assertDirectory(getFileByPath(dirName, user, directory));
-    _login.setCurrentDirectory(d, user);
+    getSession().setCurrentDirectory(d, user);
   }
 
 
@@ -364,45 +448,30 @@ public class FileSystem extends FileSystem_Base {
     if (path.length() == 0) throw new FileUnknownException(path);
     if (path.equals("/")) return super.getRootDirectory();
 
-    ArrayList<String> tokensList = processPath(path);
-    //tokensList = processEnvVars(tokensList);
-    // Absolute or relative?
-    if (path.charAt(0) == '/') {
-      //tokensList.remove(0);
-      return super.getRootDirectory().getFile(tokensList, user);
-    } else {
-      return directory.getFile(tokensList, user);
+    Directory start = path.charAt(0) == '/' ? super.getRootDirectory() : directory;
+    ResolvedPath cached = ResolvedPathCache.get(start, path);
+    if (cached != null) {
+      File file = cached.revalidate(user);
+      if (file != null)
+        return file;
     }
-  }
-
-  public ArrayList<String> processPath(String path) {
-    ArrayList<String> result = new ArrayList<String>();
-
-    if(path.charAt(path.length()-1) == '/') 
-        path = path.substring(0, path.length()-1);
-    
-    if(path.charAt(0) == '/') 
-        path = path.substring(1,path.length());
-    
-    String[] tokens = {path};
-    CharSequence cs = "/";
-    if(path.contains(cs)){
-      tokens = path.split("/");
-    }
-
-    for(String token : tokens){
-        if(token.charAt(0) == '$') result.addAll(processEnvVars(token));
-        else result.add(token);
-    }
-    return result;
 
+    PathResolver resolver = new PathResolver(this, super.getRootDirectory(), user);
+    File file = resolver.resolve(path, start);
+    ResolvedPath resolved = resolver.getTrace();
+    if (resolved != null)
+      ResolvedPathCache.put(start, path, resolved);
+    return file;
   }
 
-  public ArrayList<String> processEnvVars(String token){
-    String envVarPath = _login.getEnvVarbyName(token.substring(1,token.length())).getValue();
-    ArrayList<String> tokens = processPath(envVarPath);
-      
-    return tokens;
+  /**
+   * @param token an environment variable reference, such as $HOME
+   * @return The path held by the environment variable in the current session.
+   */
+  public String resolveEnvVar(String token) {
+    EnvironmentVariable envVar = getSession().getEnvVarbyName(token.substring(1));
+    if (envVar == null) throw new FileUnknownException(token);
+    return envVar.getValue();
   }
 
 
@@ -450,26 +519,53 @@ public class FileSystem extends FileSystem_Base {
   }
 
   /**
-   * Creates a document, with the data in the FileSystem, in XML
+   * Creates a document, with the data in the FileSystem, in XML.
+   *
+   * The document can be imported back: what importing creates by itself, the
+   * root and guest users, the top directories and the users' homes, is left
+   * out, and directories come before the directories inside them.
    */
   public Document xmlExport() {
     XMLExporterVisitor xml = new XMLExporterVisitor();
     Element mydrive = new Element("myDrive");
     Document doc = new Document(mydrive);
 
+    Set<File> created = new HashSet<File>();
+    created.add(super.getRootDirectory());
+    created.add(getHomeDirectory());
     for (User u: super.getUsersSet()){
-      if(!u.getUsername().equals("root"))
+      created.add(u.getHomeDirectory());
+      if(!isRoot(u) && !isGuest(u))
         mydrive.addContent(u.xmlExport());
     }
-    for (File f: super.getFilesSet()){
-
-      /*if(isFileExportValid(f))*/
-      mydrive.addContent(f.accept(xml));
 
+    List<File> files = new ArrayList<File>(super.getFilesSet());
+    Collections.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File f1, File f2) {
+        return Integer.compare(f1.getParent().getPathLength(), f2.getParent().getPathLength());
+      }
+    });
+    for (File f: files){
+      if(!created.contains(f))
+        mydrive.addContent(f.accept(xml));
     }
     return doc;
   }
 
+  /**
+   * @return The text of the first of element's children with one of names,
+   * or null if it has none of them.
+   */
+  private static String childText(Element element, String... names) {
+    for (String name : names) {
+      Element child = element.getChild(name);
+      if (child != null)
+        return child.getText();
+    }
+    return null;
+  }
+
   public void xmlImportUser(Element userElement) throws UnsupportedEncodingException {
     String username = new String(userElement.getAttribute("username").getValue());
 
@@ -483,10 +579,9 @@ public class FileSystem extends FileSystem_Base {
     if (pwdElement != null) pwd = new String(pwdElement.getText());
     else pwd = username;
 
-    Element permElement = userElement.getChild("mask");
-    String mask;
-    if (permElement != null) mask = new String(permElement.getText());
-    else mask = "rwxd----";
+    // Older exports named it umask
+    String mask = childText(userElement, "mask", "umask");
+    if (mask == null) mask = "rwxd----";
 
     User u = new User(this, username, name, pwd, mask);
     Directory home = (Directory) super.getRootDirectory().getFileByName("home");
@@ -529,8 +624,9 @@ public class FileSystem extends FileSystem_Base {
     Element owner = plainElement.getChild("owner");
     User u = getUserByUsername(new String(owner.getText()));
 
-    Element valueElement = plainElement.getChild("contents");
-    String value = new String(valueElement.getText());
+    // Older exports named it content
+    String value = childText(plainElement, "contents", "content");
+    if (value == null) value = "";
 
     PlainFile plain = new PlainFile(this, name, parent, u, value);
 
@@ -587,11 +683,23 @@ public class FileSystem extends FileSystem_Base {
       for (Element appElement: firstElement.getChildren("app"))
         xmlImportApp(appElement);
 
+      reserveImportedIds();
     } catch (UnsupportedEncodingException | DataConversionException  e) {
       System.out.println("Error in import filesystem");
     }
   }
 
+  /**
+   * Files keep the ids they were exported with, so the id counter is moved
+   * past them for new files not to be given any of those ids.
+   */
+  private void reserveImportedIds() {
+    int max = 0;
+    for (File f: super.getFilesSet())
+      max = Math.max(max, f.getId());
+    IdAllocator.reserveUpTo(this, max);
+  }
+
   /* ****************************************************************************
    * |                           Asserting methods                              |
    * ****************************************************************************
@@ -643,17 +751,43 @@ public class FileSystem extends FileSystem_Base {
    * ****************************************************************************
    */
 
+  /**
+   * Logins indexed by their token. Built from the logins set the first time
+   * it is needed, for filesystems persisted before it existed.
+   */
+  @SuppressWarnings("unchecked")
+  private BPlusTree<Login> loginsByToken() {
+    BPlusTree<Login> index = super.getLoginIndex();
+    if (index == null) {
+      index = new BPlusTree<Login>();
+      for (Login login : super.getLoginsSet())
+        index.insert(login.getTokenKey(), login);
+      super.setLoginIndex(index);
+    }
+    return index;
+  }
+
+  /**
+   * Registers login in the token index. Called when a login is created.
+   */
+  void indexLogin(Login login) {
+    loginsByToken().insert(login.getTokenKey(), login);
+  }
+
+  /**
+   * Removes login from the token index. Called when a login is removed.
+   */
+  void unindexLogin(Login login) {
+    loginsByToken().remove(login.getTokenKey());
+  }
+
   /**
    * @param token
    * @return The login which holds token except if it doesn't exist, in that
    * case, null is returned.
    */
   public Login getLoginByToken(long token) {
-    for (Login login : super.getLoginsSet()) {
-      if (login.compareToken(token))
-        return login;
-    }
-    return null;
+    return loginsByToken().get(token);
   }
 
   /**
@@ -674,7 +808,7 @@ public class FileSystem extends FileSystem_Base {
    * @return
    */
   public boolean existsToken(long token) {
-    return getLoginByToken(token) != null;
+    return loginsByToken().containsKey(token);
   }
 
   /**
@@ -685,59 +819,273 @@ public class FileSystem extends FileSystem_Base {
    * @return
    */
   public boolean isValidToken(long token) {
-    Login login = getLoginByToken(token);
+    return isValid(getLoginByToken(token));
+  }
+
+  private boolean isValid(Login login) {
     return login != null && !login.hasExpired();
   }
 
 
   /**
-   * Checks the validity of a token
+   * Checks the validity of a token and, if valid, starts a session with the
+   * login which holds it in the calling thread.
    *
    * @param token
-   * @return Returns true if the login which holds token hasn't expired, false
-   * otherwise
+   * @return The login which holds token
+   * @throws InvalidTokenException if there's no login holding token or it has
+   * expired
    */
-  private void updateSession(long token) {
-    if (!isValidToken(token)) {
+  private Login updateSession(long token) {
+    Login login = getLoginByToken(token);
+    if (!isValid(login)) {
       endSession();
       log.warn("Invalid Token.");
       throw new InvalidTokenException();
     }
 
-    Login login = getLoginByToken(token);
     initSession(login);
+    return login;
   }
 
-  private void endSession() {
-    _login = null;
+  /**
+   * @return The login in use by the calling thread
+   */
+  private Login getSession() {
+    return _session.get();
+  }
+
+  /**
+   * Ends the session of the calling thread. Called once each service is
+   * done, so that no session outlives its request.
+   */
+  public static void endSession() {
+    _session.remove();
   }
 
   private void initSession(Login login) {
-    _login = login;
-    login.extendToken();
+    _session.set(login);
+    if (_readOnly.get() == null)
+      login.refreshToken();
+    else if (login.needsRefresh())
+      _staleToken.set(login.getTokenKey());
+  }
+
+  /**
+   * Starts sessions in the calling thread without writing their login, as
+   * read transactions can't write. Tokens due to be extended are kept for
+   * finishReadOnly instead.
+   */
+  public static void startReadOnly() {
+    _readOnly.set(Boolean.TRUE);
+    _staleToken.remove();
+  }
+
+  /**
+   * Goes back to extending tokens as sessions are started.
+   *
+   * @return The token a session started since startReadOnly left due to be
+   * extended, or null if there's none.
+   */
+  public static Long finishReadOnly() {
+    Long token = _staleToken.get();
+    _readOnly.remove();
+    _staleToken.remove();
+    return token;
+  }
+
+  /**
+   * Extends token, unless it has expired or been removed meanwhile.
+   */
+  public void refreshToken(long token) {
+    Login login = getLoginByToken(token);
+    if (isValid(login))
+      login.refreshToken();
+  }
+
+
+  /**
+   * The chunk store maps the hash of every chunk of content to the chunk, so
+   * that files holding the same content share its chunks.
+   */
+  @SuppressWarnings("unchecked")
+  private BPlusTree<ContentChunk> chunksByHash() {
+    BPlusTree<ContentChunk> store = super.getChunkStore();
+    if (store == null) {
+      store = new BPlusTree<ContentChunk>();
+      super.setChunkStore(store);
+    }
+    return store;
+  }
+
+  /**
+   * Chunks are matched by the SHA-256 hash of their data alone, without
+   * inflating the stored one to compare it; only a differing length gives
+   * a collision away.
+   *
+   * Taking a chunk already stored doesn't write it, nor the store.
+   *
+   * @return A chunk holding data: the stored one if some file already holds
+   * data, a new one otherwise.
+   */
+  ContentChunk storeChunk(String data) {
+    String hash = ContentChunk.hash(data);
+    BPlusTree<ContentChunk> store = chunksByHash();
+    ContentChunk chunk = store.get(hash);
+    if (chunk == null) {
+      chunk = new ContentChunk(data, hash);
+      store.insert(hash, chunk);
+    } else if (chunk.getLength() != data.length()) {
+      // Hash collision: keep the new data in a chunk of its own
+      chunk = new ContentChunk(data, hash);
+    }
+    return chunk;
+  }
+
+  /**
+   * Lets go of chunk, which a file position held. Stored chunks may be shared,
+   * so they are left for sweepChunks; chunks that aren't, written before
+   * chunks were shared or on a hash collision, belonged to that position
+   * alone and are removed.
+   */
+  void dropChunk(ContentChunk chunk) {
+    String hash = chunk.getHash();
+    if (hash == null || chunksByHash().get(hash) != chunk)
+      chunk.remove();
+  }
+
+  /**
+   * @return How many positions of every file hold each chunk.
+   */
+  private Map<ContentChunk, Integer> countChunkHolders() {
+    Map<ContentChunk, Integer> holders = new HashMap<ContentChunk, Integer>();
+    for (File file : super.getFilesSet()) {
+      if (!(file instanceof PlainFile))
+        continue;
+      for (ContentChunk chunk : ((PlainFile) file).getHeldChunks()) {
+        Integer count = holders.get(chunk);
+        holders.put(chunk, count == null ? 1 : count + 1);
+      }
+    }
+    return holders;
+  }
+
+  /**
+   * Removes the stored chunks no file holds anymore. Visits every chunk of
+   * every file, so it is run by ChunkSweeper from time to time rather than
+   * whenever a file lets go of a chunk.
+   *
+   * @return Number of chunks removed.
+   */
+  public int sweepChunks() {
+    Map<ContentChunk, Integer> holders = countChunkHolders();
+    List<ContentChunk> unheld = new ArrayList<ContentChunk>();
+    BPlusTree<ContentChunk> store = chunksByHash();
+    for (ContentChunk chunk : store)
+      if (!holders.containsKey(chunk))
+        unheld.add(chunk);
+
+    for (ContentChunk chunk : unheld) {
+      store.remove(chunk.getHash());
+      chunk.remove();
+    }
+    return unheld.size();
+  }
+
+  /**
+   * Computes how much sharing and compressing chunks saves, visiting every
+   * stored chunk and every chunk files hold, without inflating any. Chunks
+   * written before they were shared aren't stored, so they aren't accounted
+   * for; stored chunks no file holds anymore are until they are swept.
+   */
+  public ContentStoreStatsDTO getContentStoreStats(long token) {
+    Login login = updateSession(token);
+    if (!isRoot(login.getUser()))
+      throw new InsufficientPermissionsException();
+    return getContentStoreStats();
+  }
+
+  public ContentStoreStatsDTO getContentStoreStats() {
+    long chunks = 0, references = 0, stored = 0, referenced = 0;
+    long compressed = 0, compressedLength = 0, compressedSize = 0;
+    Map<ContentChunk, Integer> holders = countChunkHolders();
+    for (ContentChunk chunk : chunksByHash()) {
+      int length = chunk.getLength();
+      Integer held = holders.get(chunk);
+      int count = held == null ? 0 : held;
+      chunks++;
+      references += count;
+      stored += length;
+      referenced += (long) length * count;
+      if (chunk.isCompressed()) {
+        compressed++;
+        compressedLength += length;
+        compressedSize += chunk.getStoredSize();
+      }
+    }
+    return new ContentStoreStatsDTO(chunks, references, stored, referenced,
+        compressed, compressedLength, compressedSize);
+  }
+
+  /**
+   * Logins indexed by expiration, the first one being the next to expire.
+   * Built from the logins set the first time it is needed, for filesystems
+   * persisted before it existed.
+   */
+  @SuppressWarnings("unchecked")
+  private BPlusTree<Login> loginsByExpiration() {
+    BPlusTree<Login> index = super.getExpirationIndex();
+    if (index == null) {
+      index = new BPlusTree<Login>();
+      for (Login login : super.getLoginsSet())
+        index.insert(login.getExpirationKey(), login);
+      super.setExpirationIndex(index);
+    }
+    return index;
+  }
+
+  /**
+   * Registers login in the expiration index. Called whenever its expiration
+   * date is set.
+   */
+  void scheduleLogin(Login login) {
+    loginsByExpiration().insert(login.getExpirationKey(), login);
   }
 
+  /**
+   * Removes login from the expiration index. Called before its expiration
+   * date changes and when it is removed.
+   */
+  void unscheduleLogin(Login login) {
+    loginsByExpiration().remove(login.getExpirationKey());
+  }
 
   /**
-   * Cleans up expired logins.
+   * Cleans up expired logins, at most REAP_BATCH of them per call, so that
+   * the cost of a login doesn't grow with the number of sessions. Logins are
+   * visited in expiration order, so it stops at the first one still valid.
    */
   private void cullLogins(){
-    for (Login login: super.getLoginsSet()){
-      if(login.hasExpired())
-        login.remove();
+    List<Login> expired = new ArrayList<Login>();
+    Iterator<Login> logins = loginsByExpiration().iterator();
+    while (expired.size() < REAP_BATCH && logins.hasNext()) {
+      Login login = logins.next();
+      if (!login.hasExpired())
+        break;
+      expired.add(login);
     }
 
+    for (Login login : expired)
+      login.remove();
   }
 
   /**
    * Delete Login with token.
    */
   private void removeLoginByToken(long token){
-    for (Login login: super.getLoginsSet()){
-      if(login.compareToken(token))
-        login.remove();
-    }
-
+    Login login = getLoginByToken(token);
+    if (login != null)
+      login.remove();
   }
 
 
@@ -747,10 +1095,13 @@ public class FileSystem extends FileSystem_Base {
    */
 
   public void createFile(String name, String type, String content, long token) {
-    updateSession(token);
+    Login login = updateSession(token);
+    createFile(name, type, content, login.getUser(), login.getCurrentDirectory());
+  }
 
-    if(content.equals("")) createFileWithoutContent(name, type, _login.getUser(), _login.getCurrentDirectory());
-    else createFileWithContent(name, type, content, _login.getUser(), _login.getCurrentDirectory());
+  private void createFile(String name, String type, String content, User user, Directory directory) {
+    if(content.equals("")) createFileWithoutContent(name, type, user, directory);
+    else createFileWithContent(name, type, content, user, directory);
   }
 
   private void createFileWithoutContent(String name, String type, User user, Directory directory) {
@@ -784,8 +1135,7 @@ public class FileSystem extends FileSystem_Base {
         break;
 
       case "app":
-        App a = createApp(name, directory, user);
-        a.setData(data);
+        createApp(name, directory, user, data);
         break;
 
       case "link":
@@ -807,7 +1157,7 @@ public class FileSystem extends FileSystem_Base {
         token = new BigInteger(64, new Random()).longValue();
       }
 
-      _login = new Login(this, user, user.getHomeDirectory(), token);
+      _session.set(new Login(this, user, user.getHomeDirectory(), token));
       return token;
     } else { // if password was incorrect;
       throw new WrongPasswordException(user.getUsername());
@@ -823,48 +1173,175 @@ public class FileSystem extends FileSystem_Base {
   }
 
   public String readFile(long token, String filename) {
-    updateSession(token);
-    File file = getFileByPath(filename, _login.getUser(), _login.getCurrentDirectory());
+    Login login = updateSession(token);
+    File file = getFileByPath(filename, login.getUser(), login.getCurrentDirectory());
     PlainFile pf = assertPlainFile(file);
-    return pf.getData(_login.getUser());
+    return pf.getData(login.getUser());
+  }
+
+  /**
+   * @return The part of the file starting at offset with at most length
+   * characters.
+   */
+  public String readFile(long token, String filename, int offset, int length) {
+    Login login = updateSession(token);
+    File file = getFileByPath(filename, login.getUser(), login.getCurrentDirectory());
+    PlainFile pf = assertPlainFile(file);
+    return pf.getData(login.getUser(), offset, length);
+  }
+
+  /**
+   * Opens a reader over the part of the file starting at offset with at most
+   * length characters. The reader loads the content in later transactions,
+   * one chunk at a time.
+   */
+  public ContentReader openFile(long token, String filename, int offset, int length) {
+    Login login = updateSession(token);
+    File file = getFileByPath(filename, login.getUser(), login.getCurrentDirectory());
+    PlainFile pf = assertPlainFile(file);
+    return pf.openReader(login.getUser(), offset, length);
   }
 
   public void writeFile(long token, String path, String content) {
-    updateSession(token);
+    Login login = updateSession(token);
+    writeFile(path, content, login.getUser(), login.getCurrentDirectory());
+  }
 
-    File file = getFileByPath(path, _login.getUser(), _login.getCurrentDirectory());
+  private void writeFile(String path, String content, User user, Directory directory) {
+    File file = getFileByPath(path, user, directory);
 
     PlainFile pf = assertPlainFile(file);
-    pf.setData(content, _login.getUser());
+    pf.setData(content, user);
+  }
+
+  /**
+   * Adds content to the end of a file.
+   */
+  public void appendFile(long token, String path, String content) {
+    Login login = updateSession(token);
+    File file = getFileByPath(path, login.getUser(), login.getCurrentDirectory());
+    PlainFile pf = assertPlainFile(file);
+    pf.appendData(content, login.getUser());
+  }
+
+  /**
+   * Writes content over a file starting at offset, extending it if needed.
+   */
+  public void writeFile(long token, String path, int offset, String content) {
+    Login login = updateSession(token);
+    File file = getFileByPath(path, login.getUser(), login.getCurrentDirectory());
+    PlainFile pf = assertPlainFile(file);
+    pf.writeData(offset, content, login.getUser());
   }
 
   public void deleteFile(long token, String filename) {
-    updateSession(token);
-    removeFile(filename, _login.getUser(), _login.getCurrentDirectory());
+    Login login = updateSession(token);
+    removeFile(filename, login.getUser(), login.getCurrentDirectory());
   }
 
   public String changeDirectory(long token, String dirpath) {
-    updateSession(token);
-    changeDirectory(dirpath, _login.getUser(), _login.getCurrentDirectory());
-    return _login.getCurrentDirectory().getPath();
+    Login login = updateSession(token);
+    changeDirectory(dirpath, login.getUser(), login.getCurrentDirectory());
+    return login.getCurrentDirectory().getPath();
   }
 
   public String listDirectory(long token, String filepath) {
-    updateSession(token);
-    Directory dir = assertDirectory(getFileByPath(filepath, _login.getUser(), _login.getCurrentDirectory()));
-    return listDirectory(dir, _login.getUser());
+    Login login = updateSession(token);
+    Directory dir = assertDirectory(getFileByPath(filepath, login.getUser(), login.getCurrentDirectory()));
+    return listDirectory(dir, login.getUser());
+  }
+
+  /**
+   * Lists a directory one page at a time. Each page holds at most limit
+   * entries and carries the cursor the next page starts from.
+   */
+  public DirectoryPageDTO listDirectoryPage(long token, String filepath, String cursor, int limit) {
+    if (limit < 1)
+      throw new InvalidPageSizeException(limit);
+
+    Login login = updateSession(token);
+    Directory dir = assertDirectory(getFileByPath(filepath, login.getUser(), login.getCurrentDirectory()));
+
+    // One extra file tells whether there is a next page
+    int fetch = limit < Integer.MAX_VALUE ? limit + 1 : limit;
+    List<File> files = dir.listFilesAfter(cursor, fetch, login.getUser());
+
+    FileEntryVisitor visitor = new FileEntryVisitor();
+    int count = Math.min(files.size(), limit);
+    List<FileEntryDTO> entries = new ArrayList<FileEntryDTO>(count);
+    for (int i = 0; i < count; i++)
+      entries.add(files.get(i).accept(visitor));
+
+    String next = files.size() > limit ? entries.get(count - 1).getName() : null;
+    return new DirectoryPageDTO(entries, next);
   }
 
   public void executeFile(long token, String filename, String[] arguments) {
-    updateSession(token);
-    executeFile(filename, _login.getUser(), _login.getCurrentDirectory(), arguments);
+    Login login = updateSession(token);
+    executeFile(filename, login.getUser(), login.getCurrentDirectory(), arguments);
   }
 
   public List<EnvironmentVariableDTO> addEnvironmentVariable(long token, String name, String value){
-    updateSession(token);
+    Login login = updateSession(token);
     if(!name.equals("") && name != null && value != null && !value.equals(""))
-      _login.addEnvVar(name, value);
-    return _login.listEnvVar();
+      login.addEnvVar(name, value);
+    return login.listEnvVar();
+  }
+
+  /**
+   * Runs operations, in order, validating the token and looking up the
+   * session's current directory once for all of them. An operation that
+   * fails is reported in its result and doesn't stop the ones after it.
+   *
+   * Operations aren't rolled back one by one: each checks everything it
+   * can fail on before it changes anything, so one that fails leaves the
+   * filesystem as it was, and the ones that succeed are committed whatever
+   * becomes of the others.
+   *
+   * @return The result of each operation, in the order they were given.
+   */
+  public List<BatchResultDTO> executeBatch(long token, List<BatchOperationDTO> operations) {
+    Login login = updateSession(token);
+    User user = login.getUser();
+    Directory directory = login.getCurrentDirectory();
+
+    List<BatchResultDTO> results = new ArrayList<BatchResultDTO>(operations.size());
+    for (BatchOperationDTO operation : operations) {
+      try {
+        checkBatchOperation(operation);
+        switch (operation.getType()) {
+          case CREATE:
+            String content = operation.getContent() == null ? "" : operation.getContent();
+            createFile(operation.getPath(), operation.getFileType(), content, user, directory);
+            break;
+          case WRITE:
+            writeFile(operation.getPath(), operation.getContent(), user, directory);
+            break;
+          case DELETE:
+            removeFile(operation.getPath(), user, directory);
+            break;
+        }
+        results.add(BatchResultDTO.success());
+      } catch (MyDriveException e) {
+        results.add(BatchResultDTO.failure(e));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * @throws InvalidBatchOperationException if operation lacks what it needs
+   * to run
+   */
+  private void checkBatchOperation(BatchOperationDTO operation) {
+    if (operation == null || operation.getType() == null)
+      throw new InvalidBatchOperationException("no operation given");
+    if (operation.getPath() == null)
+      throw new InvalidBatchOperationException("no file given");
+    if (operation.getType() == BatchOperationDTO.Type.CREATE && operation.getFileType() == null)
+      throw new InvalidBatchOperationException("no type given for " + operation.getPath());
+    if (operation.getType() == BatchOperationDTO.Type.WRITE && operation.getContent() == null)
+      throw new InvalidBatchOperationException("no content given for " + operation.getPath());
   }
 
   public void logout(long token){
@@ -926,6 +1403,46 @@ public class FileSystem extends FileSystem_Base {
     throw new MethodDeniedException();
   }
 
+  @Override
+  public BPlusTree getUserIndex() {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setUserIndex(BPlusTree index) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public BPlusTree getExpirationIndex() {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setExpirationIndex(BPlusTree index) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public BPlusTree getChunkStore() {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setChunkStore(BPlusTree store) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public BPlusTree getLoginIndex() {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setLoginIndex(BPlusTree index) {
+    throw new MethodDeniedException();
+  }
+
   @Override
   public Set<File> getFilesSet() {
     throw new MethodDeniedException();
@@ -0,0 +1,166 @@
+package pt.tecnico.myDrive.domain;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.FenixFramework;
+
+/**
+ * Hands out file ids without having every file creation write the
+ * filesystem's id counter.
+ *
+ * Each thread takes ids from a block of its own. Blocks are reserved by
+ * moving the counter, which is the high-water mark of ids handed out, forward
+ * in a short transaction of their own, committed before any id of the block
+ * is used. Ids stay unique across restarts and transactions creating files
+ * concurrently only conflict when two of them reserve a block at once.
+ * Ids of blocks left unused, or used by aborted transactions, are skipped.
+ *
+ * The counter is never read or written in the requesting thread's
+ * transaction, which would then conflict with every block reserved while it
+ * runs, except while the filesystem is being created in it.
+ */
+final class IdAllocator {
+  private static final Logger log = LogManager.getRootLogger();
+
+  /** Number of ids reserved at once by each thread */
+  private static final int BLOCK_SIZE = Integer.getInteger("mydrive.idBlock.size", 64);
+
+  /** Ids are reserved outside the requesting thread's transaction */
+  private static final ExecutorService _reserver = Executors.newSingleThreadExecutor(
+      new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "myDrive id allocator");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
+  /** Blocks reserved before the last reset are dropped */
+  private static volatile int _generation;
+
+  private static final ThreadLocal<Block> _block = new ThreadLocal<Block>() {
+    @Override
+    protected Block initialValue() {
+      return new Block();
+    }
+  };
+
+  private IdAllocator() {
+  }
+
+  /**
+   * @return An id no other file has been given.
+   */
+  static int next(FileSystem fs) {
+    Block block = _block.get();
+    if (block.generation == _generation && block.next < block.end)
+      return block.next++;
+
+    Integer first = reserve();
+    if (first == null) {
+      // The filesystem isn't committed yet, so it is still being created
+      return fs.reserveIds(1);
+    }
+
+    block.generation = _generation;
+    block.next = first + 1;
+    block.end = first + BLOCK_SIZE;
+    return first;
+  }
+
+  /**
+   * Drops the blocks every thread holds, as a restart would, so that the
+   * next ids come from blocks reserved afresh.
+   */
+  static void reset() {
+    _generation++;
+  }
+
+  /**
+   * Moves the counter up to id, for ids files were given otherwise, such as
+   * by an import, never to be handed out. Blocks reserved before are
+   * dropped, as they may hold such ids.
+   */
+  static void reserveUpTo(FileSystem fs, final int id) {
+    Boolean reserved = onReserver(new Callable<Boolean>() {
+      @Override
+      public Boolean call() {
+        return raiseCounter(id);
+      }
+    });
+    if (reserved == null) {
+      // The filesystem isn't committed yet, so it is still being created
+      fs.raiseIdCounter(id);
+    }
+    reset();
+  }
+
+  /**
+   * Reserves a block in a transaction of its own.
+   *
+   * @return The first id of the block, or null if there's no committed
+   * filesystem to reserve it from.
+   */
+  private static Integer reserve() {
+    return onReserver(new Callable<Integer>() {
+      @Override
+      public Integer call() {
+        return reserveBlock();
+      }
+    });
+  }
+
+  /**
+   * Runs task on the reserving thread, outside of the calling thread's
+   * transaction, and waits for it.
+   */
+  private static <T> T onReserver(Callable<T> task) {
+    try {
+      return _reserver.submit(task).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while reserving file ids", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Couldn't reserve file ids", e.getCause());
+    }
+  }
+
+  @Atomic
+  private static Integer reserveBlock() {
+    FileSystem fs = FenixFramework.getDomainRoot().getFileSystem();
+    if (fs == null)
+      return null;
+
+    int first = fs.reserveIds(BLOCK_SIZE);
+    log.trace("Reserved file ids " + first + " to " + (first + BLOCK_SIZE - 1));
+    return first;
+  }
+
+  @Atomic
+  private static Boolean raiseCounter(int id) {
+    FileSystem fs = FenixFramework.getDomainRoot().getFileSystem();
+    if (fs == null)
+      return null;
+
+    fs.raiseIdCounter(id);
+    return true;
+  }
+
+  /**
+   * Ids from next, inclusive, to end, exclusive, are free to be handed out.
+   */
+  private static final class Block {
+    int generation;
+    int next;
+    int end;
+  }
+}
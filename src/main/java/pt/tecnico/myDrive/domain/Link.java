@@ -15,8 +15,6 @@ import pt.tecnico.myDrive.visitors.GenericVisitor;
 
 import pt.tecnico.myDrive.exceptions.InsufficientPermissionsException;
 
-import java.util.ArrayList;
-
 public class Link extends Link_Base {
 
   /** Placeholder for FenixFramework */
@@ -52,23 +50,17 @@ public class Link extends Link_Base {
   	  if(super.getDirtyBit()) throw new MethodDeniedException();
 	  else super.setData(content,user);
   }
-  @Override
-  public File getFile(ArrayList<String> tokens, User user) {
-    if(tokens.size() == 0)
-      return getFileSystem$6p().getFileByPath(getData(user), user, getParent());
-
-    user.checkExecutionPermissions(this);
-    String remaining = "";
-    remaining += getData(user);
-    if(remaining.charAt(remaining.length()-1) == '/')
-      remaining = remaining.substring(0, remaining.length()-1);
 
-    for(String s : tokens )
-      remaining += '/' + s;
+  @Override
+  public void appendData(String content, User user) {
+    if (super.getDirtyBit()) throw new MethodDeniedException();
+    super.appendData(content, user);
+  }
 
-    File file = getFileSystem$6p().getFileByPath(remaining, user, getParent());
-    user.checkReadPermissions(file);
-    return file;
+  @Override
+  public void writeData(int offset, String content, User user) {
+    if (super.getDirtyBit()) throw new MethodDeniedException();
+    super.writeData(offset, content, user);
   }
 
   @Override
@@ -29,6 +29,7 @@ public class Login extends Login_Base {
     super.setCurrentDirectory(currentDirectory);
     super.setToken(token);
     extendToken();
+    fs.indexLogin(this);
   }
 
   /**
@@ -38,6 +39,8 @@ public class Login extends Login_Base {
     for(EnvironmentVariable ev : super.getEnvVarSet()){
       ev.remove(); 
     }
+    super.getFileSystem().unindexLogin(this);
+    super.getFileSystem().unscheduleLogin(this);
     nullifyRelations();
     deleteDomainObject();
   }
@@ -53,7 +56,52 @@ public class Login extends Login_Base {
   }
 
   public void extendToken() {
-    super.setExpirationDate(super.getUser().getNextExpirationDate());
+    expireAt(super.getUser().getNextExpirationDate());
+  }
+
+  /**
+   * Extends the token once less than half of its lifetime is left. Most
+   * requests then don't write the login, which lets read-only requests stay
+   * read-only and keeps them from conflicting on it.
+   */
+  public void refreshToken() {
+    if (needsRefresh())
+      extendToken();
+  }
+
+  /**
+   * @return Whether less than half of the lifetime of the token is left.
+   */
+  public boolean needsRefresh() {
+    long now = System.currentTimeMillis();
+    long lifetime = super.getUser().getNextExpirationDate().getMillis() - now;
+    return super.getExpirationDate().getMillis() - now < lifetime / 2;
+  }
+
+  /**
+   * Changes the expiration date, keeping the filesystem's expiration index,
+   * which is keyed by it, up to date.
+   */
+  private void expireAt(DateTime expirationDate) {
+    FileSystem fs = super.getFileSystem();
+    if (super.getExpirationDate() != null)
+      fs.unscheduleLogin(this);
+    super.setExpirationDate(expirationDate);
+    fs.scheduleLogin(this);
+  }
+
+  /**
+   * @return The key of this login in the filesystem's expiration index.
+   */
+  LoginExpiration getExpirationKey() {
+    return new LoginExpiration(super.getExpirationDate().getMillis(), super.getToken());
+  }
+
+  /**
+   * @return The token, as the key of the filesystem's login index.
+   */
+  Long getTokenKey() {
+    return super.getToken();
   }
 
   public boolean compareToken(long token) {
@@ -61,11 +109,11 @@ public class Login extends Login_Base {
   }
 
   public boolean hasExpired () {
-    return new DateTime().compareTo(super.getExpirationDate()) >= 0;
+    return System.currentTimeMillis() >= super.getExpirationDate().getMillis();
   }
 
   public void reduceExpirationDate(int hours, int minutes, int seconds){
-    super.setExpirationDate(super.getExpirationDate().minusHours(hours).minusMinutes(minutes).minusSeconds(seconds));
+    expireAt(super.getExpirationDate().minusHours(hours).minusMinutes(minutes).minusSeconds(seconds));
   }
 
   @Override
@@ -0,0 +1,45 @@
+package pt.tecnico.myDrive.domain;
+
+import java.io.Serializable;
+
+/**
+ * Key of the filesystem's expiration index. Orders logins by expiration
+ * instant, breaking ties by token so that every login has a distinct key.
+ */
+final class LoginExpiration implements Comparable<LoginExpiration>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long _expiration;
+  private final long _token;
+
+  LoginExpiration(long expiration, long token) {
+    _expiration = expiration;
+    _token = token;
+  }
+
+  @Override
+  public int compareTo(LoginExpiration other) {
+    if (_expiration != other._expiration)
+      return _expiration < other._expiration ? -1 : 1;
+    if (_token != other._token)
+      return _token < other._token ? -1 : 1;
+    return 0;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof LoginExpiration
+        && compareTo((LoginExpiration) other) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (_expiration ^ (_expiration >>> 32) ^ _token ^ (_token >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return _expiration + ":" + _token;
+  }
+}
@@ -0,0 +1,20 @@
+package pt.tecnico.myDrive.domain;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source of modification stamps. Stamps are never handed out twice, not even
+ * to transactions that end up aborting, so two equal stamps always refer to
+ * the same committed state. Seeding from the clock keeps stamps issued after
+ * a restart above the ones already persisted.
+ */
+final class ModificationStamps {
+
+  private static final AtomicLong _next = new AtomicLong(System.currentTimeMillis() << 20);
+
+  private ModificationStamps() {}
+
+  static long next() {
+    return _next.incrementAndGet();
+  }
+}
@@ -0,0 +1,180 @@
+package pt.tecnico.myDrive.domain;
+
+import pt.tecnico.myDrive.visitors.DirectoryVisitor;
+import pt.tecnico.myDrive.visitors.LinkVisitor;
+
+import pt.tecnico.myDrive.exceptions.NotADirectoryException;
+
+/**
+ * Resolves a path by walking the path string in place, one component at a
+ * time, without splitting it into intermediate lists.
+ *
+ * The resolved file must be readable by the user and, when it is reached
+ * through other directories, executable as well. Links crossed along the way
+ * must be executable.
+ *
+ * Every directory looked up and every permission checked is recorded, so the
+ * resolution can be cached and replayed by ResolvedPathCache.
+ */
+class PathResolver {
+
+  private static final DirectoryVisitor DIRECTORY_VISITOR = new DirectoryVisitor();
+  private static final LinkVisitor LINK_VISITOR = new LinkVisitor();
+
+  private final FileSystem _fs;
+  private final Directory _root;
+  private final User _user;
+  private final ResolvedPath _trace = new ResolvedPath();
+
+  /** Directory where the next path component is looked up */
+  private Directory _current;
+
+  /** Number of path components walked so far */
+  private int _depth;
+
+  /** Paths going through environment variables depend on the session */
+  private boolean _cacheable = true;
+
+  PathResolver(FileSystem fs, Directory root, User user) {
+    _fs = fs;
+    _root = root;
+    _user = user;
+  }
+
+  /**
+   * @param path
+   * @param directory the directory relative paths start from.
+   * @return The file at the end of the path.
+   */
+  File resolve(String path, Directory directory) {
+    _current = directory;
+    _depth = 0;
+
+    File file = walk(path, true);
+    if (_depth > 1)
+      checkExecution(file);
+    _trace.resolvedTo(file);
+    return file;
+  }
+
+  /**
+   * @return The recorded resolution, or null if it can't be reused.
+   */
+  ResolvedPath getTrace() {
+    return _cacheable ? _trace : null;
+  }
+
+  /**
+   * Walks every component of path. When terminal is set, the last component
+   * is resolved and returned, otherwise it is stepped into like all others.
+   *
+   * @return The file named by the last component, or null if not terminal.
+   */
+  private File walk(String path, boolean terminal) {
+    int end = path.length();
+
+    if (end > 0 && path.charAt(0) == '/')
+      _current = _root;
+
+    int start = skipSlashes(path, 0, end);
+    if (start == end)
+      return terminal ? _current : null;
+
+    while (true) {
+      int stop = path.indexOf('/', start);
+      if (stop == -1)
+        stop = end;
+      int next = skipSlashes(path, stop, end);
+      boolean last = next == end;
+      String name = path.substring(start, stop);
+
+      if (name.charAt(0) == '$') {
+        _cacheable = false;
+        File file = walk(_fs.resolveEnvVar(name), terminal && last);
+        if (last)
+          return file;
+      } else if (last && terminal) {
+        _depth++;
+        File file = follow(lookup(name));
+        checkRead(file);
+        return file;
+      } else {
+        step(name);
+        if (last)
+          return null;
+      }
+      start = next;
+    }
+  }
+
+  /**
+   * Moves into the directory named name, following it if it is a link.
+   */
+  private void step(String name) {
+    _depth++;
+    File file = lookup(name);
+
+    Directory dir = file.accept(DIRECTORY_VISITOR);
+    if (dir != null) {
+      _current = dir;
+      return;
+    }
+
+    Link link = file.accept(LINK_VISITOR);
+    if (link == null)
+      throw new NotADirectoryException(file.getName());
+
+    checkExecution(link);
+    String target = readLink(link);
+    _current = link.getParent();
+    walk(target, false);
+  }
+
+  /**
+   * @return The file the link at the end of a path points to, or file itself
+   * if it is not a link.
+   */
+  private File follow(File file) {
+    Link link = file.accept(LINK_VISITOR);
+    if (link == null)
+      return file;
+
+    String target = readLink(link);
+    int depth = _depth;
+    _current = link.getParent();
+    _depth = 0;
+
+    File resolved = walk(target, true);
+    if (_depth > 1)
+      checkExecution(resolved);
+
+    _depth = depth;
+    return resolved;
+  }
+
+  private File lookup(String name) {
+    _trace.lookedUp(_current);
+    return _current.getFileByName(name);
+  }
+
+  private String readLink(Link link) {
+    _trace.checked(link, ResolvedPath.READ);
+    return link.getData(_user);
+  }
+
+  private void checkRead(File file) {
+    _trace.checked(file, ResolvedPath.READ);
+    _user.checkReadPermissions(file);
+  }
+
+  private void checkExecution(File file) {
+    _trace.checked(file, ResolvedPath.EXECUTE);
+    _user.checkExecutionPermissions(file);
+  }
+
+  private static int skipSlashes(String path, int index, int end) {
+    while (index < end && path.charAt(index) == '/')
+      index++;
+    return index;
+  }
+}
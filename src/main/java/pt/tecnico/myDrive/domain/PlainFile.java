@@ -2,6 +2,7 @@ package pt.tecnico.myDrive.domain;
 
 import org.jdom2.Element;
 import java.io.UnsupportedEncodingException;
+import java.util.Collections;
 import org.jdom2.DataConversionException;
 
 import pt.tecnico.myDrive.exceptions.UserUnknownException;
@@ -11,16 +12,21 @@ import pt.tecnico.myDrive.exceptions.FileUnknownException;
 import pt.tecnico.myDrive.exceptions.MethodDeniedException;
 import pt.tecnico.myDrive.exceptions.InsufficientPermissionsException;
 import pt.tecnico.myDrive.exceptions.NoExtensionException;
+import pt.tecnico.myDrive.exceptions.InvalidRangeException;
 
 import pt.tecnico.myDrive.visitors.GenericVisitor;
 
 import pt.tecnico.myDrive.domain.App;
 import org.joda.time.DateTime;
 import org.apache.commons.lang3.ArrayUtils;
-import java.util.ArrayList;
+
+import pt.ist.fenixframework.adt.bplustree.BPlusTree;
 
 public class PlainFile extends PlainFile_Base {
 
+  /** Number of characters held by every chunk of content but the last */
+  static final int CHUNK_SIZE = 4096;
+
   /** Placeholder for FenixFramework */
   protected PlainFile () {
     super();
@@ -36,17 +42,232 @@ public class PlainFile extends PlainFile_Base {
 
   protected void init(FileSystem fs, Integer id, String name, Directory parent, User owner, String data) {
     super.init(fs, id, name, parent, owner);
-    super.setData(data);
+    setContent(data);
   }
 
   @Override
   public int getSize(){
-    return super.getData().length();
+    Integer length = super.getLength();
+    if (length != null)
+      return length;
+    String data = super.getData();
+    return data == null ? 0 : data.length();
+  }
+
+  /**
+   * The chunk index maps the position of each chunk in the content to the
+   * chunk itself. Files persisted before chunks existed keep their content
+   * in the Data slot until the first time they are written, when it is
+   * moved into chunks.
+   *
+   * @return The chunk index of this file.
+   */
+  private BPlusTree<ContentChunk> getChunks() {
+    BPlusTree<ContentChunk> chunks = super.getChunkIndex();
+    if (chunks == null) {
+      String data = super.getData();
+      if (data == null)
+        data = "";
+      chunks = new BPlusTree<ContentChunk>();
+      for (int i = 0; i < chunkCount(data.length()); i++)
+        chunks.insert(i, getFileSystem$6p().storeChunk(chunk(data, i)));
+      super.setChunkIndex(chunks);
+      super.setLength(data.length());
+      super.setData(null);
+    }
+    return chunks;
+  }
+
+  private static int chunkCount(int length) {
+    return (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+  }
+
+  /**
+   * @return The part of data held by the chunk at that position.
+   */
+  private static String chunk(String data, int position) {
+    int start = position * CHUNK_SIZE;
+    return data.substring(start, Math.min(data.length(), start + CHUNK_SIZE));
+  }
+
+  /**
+   * @return The whole content, loading every chunk.
+   */
+  private String getContent() {
+    BPlusTree<ContentChunk> chunks = super.getChunkIndex();
+    if (chunks == null) {
+      String data = super.getData();
+      return data == null ? "" : data;
+    }
+
+    StringBuilder content = new StringBuilder(getSize());
+    for (ContentChunk chunk : chunks)
+      content.append(chunk.getData());
+    return content.toString();
+  }
+
+  /**
+   * Files persisted before versions existed get theirs the first time it is
+   * needed.
+   *
+   * @return The version of the content, changed by every write.
+   */
+  private long getContentVersion() {
+    Long version = super.getVersion();
+    if (version == null) {
+      version = ModificationStamps.next();
+      super.setVersion(version);
+    }
+    return version;
+  }
+
+  /**
+   * Gives the content a new version, dropping the cached one.
+   */
+  private void contentChanged() {
+    super.setVersion(ModificationStamps.next());
+    ContentCache.get().invalidate(getExternalId());
+  }
+
+  /**
+   * @return The whole content, from the content cache if it holds the
+   * current version.
+   */
+  private String getCachedContent() {
+    ContentCache cache = ContentCache.get();
+    long version = getContentVersion();
+    String content = cache.get(getExternalId(), version);
+    if (content == null) {
+      content = getContent();
+      cache.put(getExternalId(), version, content);
+    }
+    return content;
+  }
+
+  /**
+   * @return The chunk at that position, or null if the content ends before
+   * it.
+   */
+  String readChunk(int position) {
+    BPlusTree<ContentChunk> chunks = super.getChunkIndex();
+    if (chunks == null) {
+      String data = super.getData();
+      if (data == null || position * CHUNK_SIZE >= data.length())
+        return null;
+      return chunk(data, position);
+    }
+
+    ContentChunk chunk = chunks.get(position);
+    return chunk == null ? null : chunk.getData();
+  }
+
+  /**
+   * @return The part of the content starting at offset with at most length
+   * characters, loading only the chunks it spans.
+   */
+  String read(int offset, int length) {
+    int end = (int) Math.min(getSize(), (long) offset + length);
+    if (offset >= end)
+      return "";
+
+    StringBuilder content = new StringBuilder(end - offset);
+    for (int i = offset / CHUNK_SIZE; i * CHUNK_SIZE < end; i++) {
+      int start = i * CHUNK_SIZE;
+      String chunk = readChunk(i);
+      content.append(chunk, Math.max(offset - start, 0), Math.min(end - start, chunk.length()));
+    }
+    return content.toString();
+  }
+
+  private static void checkRange(int offset, int length) {
+    if (offset < 0 || length < 0)
+      throw new InvalidRangeException(offset, length);
+  }
+
+  /**
+   * Makes the chunk at that position hold data. Chunks are shared by every
+   * position of every file holding the same data, so they are never changed:
+   * the position is pointed at the stored chunk for data instead, and the
+   * chunk it held is let go.
+   */
+  private void putChunk(BPlusTree<ContentChunk> chunks, int position, String data) {
+    ContentChunk old = chunks.get(position);
+    if (old != null && old.getData().equals(data))
+      return;
+
+    FileSystem fs = getFileSystem$6p();
+    ContentChunk chunk = fs.storeChunk(data);
+    if (old != null) {
+      chunks.remove(position);
+      fs.dropChunk(old);
+    }
+    chunks.insert(position, chunk);
+  }
+
+  /**
+   * Replaces the content with data. Only the chunks whose part of the content
+   * changed are written; chunks past the end of data are let go.
+   */
+  private void setContent(String data) {
+    BPlusTree<ContentChunk> chunks = getChunks();
+    int count = chunkCount(data.length());
+    int previous = chunkCount(getSize());
+
+    for (int i = 0; i < count; i++)
+      putChunk(chunks, i, chunk(data, i));
+    for (int i = count; i < previous; i++) {
+      getFileSystem$6p().dropChunk(chunks.get(i));
+      chunks.remove(i);
+    }
+    super.setLength(data.length());
+    contentChanged();
+  }
+
+  /**
+   * Writes data over the content starting at offset, which must not be past
+   * its end, extending it if needed. Only the chunks the written region spans
+   * are loaded and written.
+   */
+  private void writeContent(int offset, String data) {
+    if (data.isEmpty())
+      return;
+
+    BPlusTree<ContentChunk> chunks = getChunks();
+    int end = offset + data.length();
+    for (int i = offset / CHUNK_SIZE; i * CHUNK_SIZE < end; i++) {
+      int start = i * CHUNK_SIZE;
+      int from = Math.max(offset - start, 0);
+      int to = Math.min(end - start, CHUNK_SIZE);
+      String part = data.substring(start + from - offset, start + to - offset);
+
+      ContentChunk chunk = chunks.get(i);
+      String old = chunk == null ? "" : chunk.getData();
+      putChunk(chunks, i, old.substring(0, from) + part + (to < old.length() ? old.substring(to) : ""));
+    }
+    super.setLength(Math.max(getSize(), end));
+    contentChanged();
+  }
+
+  /**
+   * @return The chunks the content is split in, in order.
+   */
+  Iterable<ContentChunk> getHeldChunks() {
+    BPlusTree<ContentChunk> chunks = super.getChunkIndex();
+    return chunks == null ? Collections.<ContentChunk>emptyList() : chunks;
   }
 
   @Override
-  public File getFile(ArrayList<String> tokens, User user) {
-    throw new NotADirectoryException(getName());
+  protected void remove() {
+    BPlusTree<ContentChunk> chunks = super.getChunkIndex();
+    if (chunks != null) {
+      FileSystem fs = getFileSystem$6p();
+      for (ContentChunk chunk : chunks)
+        fs.dropChunk(chunk);
+      super.setChunkIndex(null);
+      chunks.delete();
+    }
+    ContentCache.get().invalidate(getExternalId());
+    super.remove();
   }
 
   @Override
@@ -83,13 +304,87 @@ public class PlainFile extends PlainFile_Base {
 
   public void setData(String data, User user) {
     user.checkWritePermissions(this);
-    super.setData(data);
+    setContent(data);
+    touch();
+  }
+
+  /**
+   * Adds data to the end of the content, writing only the last chunk and the
+   * chunks data fills.
+   */
+  public void appendData(String data, User user) {
+    user.checkWritePermissions(this);
+    writeContent(getSize(), data);
+    touch();
+  }
+
+  /**
+   * Writes data over the content starting at offset, extending it if data
+   * goes past its end. Offset must not be past the end of the content.
+   */
+  public void writeData(int offset, String data, User user) {
+    checkRange(offset, data.length());
+    user.checkWritePermissions(this);
+    if (offset > getSize())
+      throw new InvalidRangeException(offset, data.length());
+    writeContent(offset, data);
     touch();
   }
 
   public String getData(User user) {
     user.checkReadPermissions(this);
-    return super.getData();
+    return getCachedContent();
+  }
+
+  /**
+   * @return The part of the content starting at offset with at most length
+   * characters; empty if offset is past its end.
+   */
+  public String getData(User user, int offset, int length) {
+    checkRange(offset, length);
+    user.checkReadPermissions(this);
+    return read(offset, length);
+  }
+
+  /**
+   * Opens a reader over the part of the content starting at offset with at
+   * most length characters. Permissions are checked now, not on every read.
+   */
+  public ContentReader openReader(User user, int offset, int length) {
+    checkRange(offset, length);
+    user.checkReadPermissions(this);
+    int end = (int) Math.min(getSize(), (long) offset + length);
+    return new ContentReader(this, Math.min(offset, end), end);
+  }
+
+  @Override
+  public void setLength(Integer length) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public Integer getLength() {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setVersion(Long version) {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public Long getVersion() {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public BPlusTree getChunkIndex() {
+    throw new MethodDeniedException();
+  }
+
+  @Override
+  public void setChunkIndex(BPlusTree index) {
+    throw new MethodDeniedException();
   }
 
   @Override
@@ -0,0 +1,69 @@
+package pt.tecnico.myDrive.domain;
+
+import java.util.Arrays;
+
+/**
+ * Record of a path resolution: the directories it looked files up in, along
+ * with their modification stamps at the time, and the permission checks it
+ * made. A resolution stays valid as long as none of those directories has
+ * been modified since, and replaying its permission checks still succeeds.
+ */
+final class ResolvedPath {
+
+  static final byte READ = 0;
+  static final byte EXECUTE = 1;
+
+  private Directory[] _directories = new Directory[8];
+  private long[] _stamps = new long[8];
+  private int _lookups;
+
+  private File[] _checked = new File[8];
+  private byte[] _checks = new byte[8];
+  private int _checkCount;
+
+  private File _file;
+
+  void lookedUp(Directory dir) {
+    if (_lookups == _directories.length) {
+      _directories = Arrays.copyOf(_directories, _lookups * 2);
+      _stamps = Arrays.copyOf(_stamps, _lookups * 2);
+    }
+    _directories[_lookups] = dir;
+    _stamps[_lookups] = dir.getModificationStamp();
+    _lookups++;
+  }
+
+  void checked(File file, byte check) {
+    if (_checkCount == _checked.length) {
+      _checked = Arrays.copyOf(_checked, _checkCount * 2);
+      _checks = Arrays.copyOf(_checks, _checkCount * 2);
+    }
+    _checked[_checkCount] = file;
+    _checks[_checkCount] = check;
+    _checkCount++;
+  }
+
+  void resolvedTo(File file) {
+    _file = file;
+  }
+
+  /**
+   * Replays the permission checks of the resolution for user.
+   *
+   * @return The resolved file, or null if a directory along the path has
+   * been modified since the resolution.
+   */
+  File revalidate(User user) {
+    for (int i = 0; i < _lookups; i++)
+      if (_directories[i].getModificationStamp() != _stamps[i])
+        return null;
+
+    for (int i = 0; i < _checkCount; i++) {
+      if (_checks[i] == READ)
+        user.checkReadPermissions(_checked[i]);
+      else
+        user.checkExecutionPermissions(_checked[i]);
+    }
+    return _file;
+  }
+}
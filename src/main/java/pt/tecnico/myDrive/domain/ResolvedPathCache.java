@@ -0,0 +1,97 @@
+package pt.tecnico.myDrive.domain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of path resolutions, keyed by the directory the resolution
+ * started at and the path string. Least recently used entries are evicted
+ * first.
+ *
+ * Entries are never trusted blindly: ResolvedPath.revalidate checks the
+ * modification stamps of every directory involved and replays the
+ * permission checks against the calling user.
+ *
+ * The cache is split in stripes by key, each an LRU map with its own lock,
+ * so that threads resolving different paths don't wait for each other.
+ */
+final class ResolvedPathCache {
+
+  private static final int CAPACITY = Integer.getInteger("mydrive.pathCache.size", 4096);
+  private static final int STRIPES = 16;
+
+  private static final Stripe[] _stripes = new Stripe[STRIPES];
+
+  static {
+    for (int i = 0; i < STRIPES; i++)
+      _stripes[i] = new Stripe(Math.max(1, CAPACITY / STRIPES));
+  }
+
+  private ResolvedPathCache() {}
+
+  private static Stripe stripe(Key key) {
+    int hash = key.hashCode();
+    return _stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+  }
+
+  static ResolvedPath get(Directory start, String path) {
+    Key key = new Key(start, path);
+    Stripe stripe = stripe(key);
+    synchronized (stripe) {
+      return stripe.get(key);
+    }
+  }
+
+  static void put(Directory start, String path, ResolvedPath resolved) {
+    Key key = new Key(start, path);
+    Stripe stripe = stripe(key);
+    synchronized (stripe) {
+      stripe.put(key, resolved);
+    }
+  }
+
+  static void clear() {
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        stripe.clear();
+      }
+    }
+  }
+
+  private static final class Stripe extends LinkedHashMap<Key, ResolvedPath> {
+    private final int _capacity;
+
+    Stripe(int capacity) {
+      super(16, 0.75f, true);
+      _capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, ResolvedPath> eldest) {
+      return size() > _capacity;
+    }
+  }
+
+  private static final class Key {
+    private final Directory _start;
+    private final String _path;
+
+    Key(Directory start, String path) {
+      _start = start;
+      _path = path;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key))
+        return false;
+      Key key = (Key) other;
+      return _start == key._start && _path.equals(key._path);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(_start) + _path.hashCode();
+    }
+  }
+}
@@ -48,6 +48,7 @@ public class User extends User_Base {
     super.setPassword(password);
     super.setUmask(umask);
     super.setHomeDirectory(homeDir);
+    fs.indexUser(this);
   }
 
   protected void init(FileSystem fs, String username, String name, String password, String umask) {
@@ -148,6 +149,7 @@ public class User extends User_Base {
    * Basic remove implementation for User objects
    */
   public void remove() {
+    super.getFileSystem().unindexUser(this);
     nullifyRelations();
     deleteDomainObject();
   }
@@ -174,7 +176,7 @@ public class User extends User_Base {
     Element userHomeDir = new Element("home");
     userHomeDir.setText(getHomeDirectory().getPath());
 
-    Element userUmask = new Element("umask");
+    Element userUmask = new Element("mask");
     userUmask.setText(getUmask());
 
     user.addContent(userName);
@@ -3,7 +3,7 @@ package pt.tecnico.myDrive.exceptions;
 /**
  * This exception is thrown whenever the logged user attempts to write to a directory
  */
-public class CannotWriteToDirectoryException extends RuntimeException {
+public class CannotWriteToDirectoryException extends MyDriveException {
 
 
   public CannotWriteToDirectoryException() {
@@ -3,7 +3,7 @@ package pt.tecnico.myDrive.exceptions;
 /**
  * This exception is thrown whenever an user tries to write a Link file.
  */
-public class CannotWriteToLinkException extends RuntimeException {
+public class CannotWriteToLinkException extends MyDriveException {
 
   /** The existing file's name. */
   private final String _filename;
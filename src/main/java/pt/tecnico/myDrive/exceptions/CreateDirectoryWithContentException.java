@@ -4,7 +4,7 @@ package pt.tecnico.myDrive.exceptions;
  * This exception is thrown whenever the logged user attempts to create a directory with
  * content
  */
-public class CreateDirectoryWithContentException extends RuntimeException {
+public class CreateDirectoryWithContentException extends MyDriveException {
 
   public CreateDirectoryWithContentException() {
     super("Cannot create directory with content");
@@ -4,7 +4,7 @@ package pt.tecnico.myDrive.exceptions;
  * This exception is thrown whenever the logged user attempts to create a link without
  * content
  */
-public class CreateLinkWithoutContentException extends RuntimeException {
+public class CreateLinkWithoutContentException extends MyDriveException {
 
   public CreateLinkWithoutContentException() {
     super("Cannot create link without content");
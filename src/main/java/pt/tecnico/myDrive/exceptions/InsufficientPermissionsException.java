@@ -4,7 +4,7 @@ package pt.tecnico.myDrive.exceptions;
  * This exception is thrown whenever the logged user hasn't sufficient
  * permissions to perform the desired operation.
  */
-public class InsufficientPermissionsException extends RuntimeException {
+public class InsufficientPermissionsException extends MyDriveException {
 
   public InsufficientPermissionsException() {
     super("Permission denied");
@@ -0,0 +1,16 @@
+package pt.tecnico.myDrive.exceptions;
+
+/**
+ * This exception is thrown whenever an operation of a batch lacks what it
+ * needs to run, such as the type of the file to create or the content to
+ * write.
+ */
+public class InvalidBatchOperationException extends MyDriveException {
+
+  /**
+   * @param reason what the operation lacks.
+   */
+  public InvalidBatchOperationException(String reason) {
+    super("Invalid batch operation: " + reason);
+  }
+}
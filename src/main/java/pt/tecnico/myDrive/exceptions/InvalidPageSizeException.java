@@ -0,0 +1,31 @@
+package pt.tecnico.myDrive.exceptions;
+
+/**
+ * This exception is thrown whenever a listing is requested with a page size
+ * that can't hold any entry.
+ */
+public class InvalidPageSizeException extends MyDriveException {
+
+  /** The requested page size. */
+  private final int _size;
+
+  /**
+   * @param size the requested page size.
+   */
+  public InvalidPageSizeException(int size) {
+    _size = size;
+  }
+
+  /**
+   * @return Returns the requested page size.
+   */
+  public int getSize() { return _size; }
+
+  /**
+   * @return Returns the detailed message of this throwable.
+   */
+  @Override
+  public String getMessage() {
+    return "A page must hold at least one entry, got '" + getSize() + "'";
+  }
+}
@@ -4,7 +4,7 @@ package pt.tecnico.myDrive.exceptions;
  * This exception is thrown whenever an attempt is made to create a
  * password with invalid length.
  */
-public class InvalidPasswordLengthException extends RuntimeException {
+public class InvalidPasswordLengthException extends MyDriveException {
 
   /** The maximum valid password size. */
   private final int _maxLength;
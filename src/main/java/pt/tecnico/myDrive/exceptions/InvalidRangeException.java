@@ -0,0 +1,41 @@
+package pt.tecnico.myDrive.exceptions;
+
+/**
+ * This exception is thrown whenever part of a file is requested with a
+ * negative offset or length.
+ */
+public class InvalidRangeException extends MyDriveException {
+
+  /** The requested offset. */
+  private final int _offset;
+
+  /** The requested length. */
+  private final int _length;
+
+  /**
+   * @param offset the requested offset.
+   * @param length the requested length.
+   */
+  public InvalidRangeException(int offset, int length) {
+    _offset = offset;
+    _length = length;
+  }
+
+  /**
+   * @return Returns the requested offset.
+   */
+  public int getOffset() { return _offset; }
+
+  /**
+   * @return Returns the requested length.
+   */
+  public int getLength() { return _length; }
+
+  /**
+   * @return Returns the detailed message of this throwable.
+   */
+  @Override
+  public String getMessage() {
+    return "Offset and length must not be negative, got '" + getOffset() + "' and '" + getLength() + "'";
+  }
+}
@@ -4,7 +4,7 @@ package pt.tecnico.myDrive.exceptions;
  * This exception is thrown whenever an attempt is made to perform an
  * operation with an invalid token
  */
-public class InvalidTokenException extends RuntimeException {
+public class InvalidTokenException extends MyDriveException {
 
   public InvalidTokenException() {
     super("Invalid token");
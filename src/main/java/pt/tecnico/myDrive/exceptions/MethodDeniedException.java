@@ -4,7 +4,7 @@ package pt.tecnico.myDrive.exceptions;
  * This exception is thrown whenever the logged user hasn't sufficient
  * permissions to perform the desired operation.
  */
-public class MethodDeniedException extends RuntimeException {
+public class MethodDeniedException extends MyDriveException {
 
   public MethodDeniedException() {
     super("You don't have permission to use this method");
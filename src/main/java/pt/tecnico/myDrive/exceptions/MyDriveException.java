@@ -0,0 +1,18 @@
+package pt.tecnico.myDrive.exceptions;
+
+/**
+ * Base of the exceptions thrown whenever a myDrive operation can't be
+ * performed, as opposed to errors of the program itself.
+ */
+public abstract class MyDriveException extends RuntimeException {
+
+  public MyDriveException() {
+  }
+
+  /**
+   * @param message the detailed message.
+   */
+  public MyDriveException(String message) {
+    super(message);
+  }
+}
@@ -3,7 +3,7 @@ package pt.tecnico.myDrive.exceptions;
 /**
  * This exception is thrown when there is not an associated app to an extension 
  */
-public class NoAssociatedAppException extends RuntimeException {
+public class NoAssociatedAppException extends MyDriveException {
 
   /** The existing file's name. */
   private final String _extension;
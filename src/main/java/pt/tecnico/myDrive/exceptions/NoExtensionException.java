@@ -4,7 +4,7 @@ package pt.tecnico.myDrive.exceptions;
  * This exception is thrown whenever a file with no extension is to be executed
  * with an extension.
  */
-public class NoExtensionException extends RuntimeException {
+public class NoExtensionException extends MyDriveException {
 
   /** The existing file's name. */
   private final String _filename;
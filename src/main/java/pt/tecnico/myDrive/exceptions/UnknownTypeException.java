@@ -4,7 +4,7 @@ package pt.tecnico.myDrive.exceptions;
  * This exception is thrown whenever an attempt is made to create
  * a file with an unknown type
  */
-public class UnknownTypeException extends RuntimeException {
+public class UnknownTypeException extends MyDriveException {
 
   /** The unknown typename. */
   private String _typename;
@@ -3,7 +3,7 @@ package pt.tecnico.myDrive.exceptions;
 /**
  * This exception is thrown whenever a password entered for a user is incorrect.
  */
-public class WrongPasswordException extends RuntimeException {
+public class WrongPasswordException extends MyDriveException {
 
   /** The username whose password is wrong. */
   private final String _username;
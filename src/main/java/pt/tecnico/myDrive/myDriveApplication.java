@@ -13,6 +13,7 @@ import org.jdom2.output.XMLOutputter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import pt.tecnico.myDrive.domain.ChunkSweeper;
 import pt.tecnico.myDrive.domain.FileSystem;
 import pt.tecnico.myDrive.domain.User;
 import pt.tecnico.myDrive.domain.Directory;
@@ -34,17 +35,23 @@ public class myDriveApplication {
   // FenixFramework will try automatic initialization when first accessed
   public static void main(String [] args) {
     log.trace("Welcome to myDrive");
+    Snapshot snapshot = Snapshot.configured();
     try {
       if(args.length > 0) xmlScan(new java.io.File(args[0]));
+      else if(snapshot != null) snapshot.restore();
       else setupDrive();
       //xmlPrint();
 
+      ChunkSweeper.start();
       MyDriveShell.main(new String[0]);
 
+      // Only a clean exit saves the snapshot, see Snapshot
+      if(snapshot != null) snapshot.save();
     } catch(Exception e){
       e.printStackTrace();
     }finally {
       // ensure an orderly shutdown
+      ChunkSweeper.stop();
       FenixFramework.shutdown();
     }
   }
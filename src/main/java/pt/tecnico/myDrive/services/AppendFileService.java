@@ -0,0 +1,27 @@
+package pt.tecnico.myDrive.services;
+
+import pt.tecnico.myDrive.domain.FileSystem;
+
+public class AppendFileService extends myDriveService {
+
+  private long _token;
+  private String _filepath;
+  private String _data;
+
+  /**
+   * Adds content to the end of a file. Only the end of the file is loaded
+   * and written, however large the file is.
+   */
+  public AppendFileService(long token, String filepath, String content) {
+    super();
+    _token = token;
+    _filepath = filepath;
+    _data = content;
+  }
+
+  @Override
+  protected void dispatch() {
+    FileSystem fs = getFileSystem();
+    fs.appendFile(_token, _filepath, _data);
+  }
+}
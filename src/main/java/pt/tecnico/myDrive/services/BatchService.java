@@ -0,0 +1,37 @@
+package pt.tecnico.myDrive.services;
+
+import java.util.List;
+
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.services.dto.BatchOperationDTO;
+import pt.tecnico.myDrive.services.dto.BatchResultDTO;
+
+/**
+ * Runs several operations, in order, in a single transaction and session.
+ * An operation that fails doesn't stop the ones after it.
+ */
+public class BatchService extends myDriveService {
+
+  private long _token;
+  private List<BatchOperationDTO> _operations;
+  private List<BatchResultDTO> _results;
+
+  public BatchService(long token, List<BatchOperationDTO> operations) {
+    super();
+    _token = token;
+    _operations = operations;
+  }
+
+  @Override
+  protected void dispatch() {
+    FileSystem fs = FileSystem.getInstance();
+    _results = fs.executeBatch(_token, _operations);
+  }
+
+  /**
+   * @return The result of each operation, in the order they were given.
+   */
+  public List<BatchResultDTO> result() {
+    return _results;
+  }
+}
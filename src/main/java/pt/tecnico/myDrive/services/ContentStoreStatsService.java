@@ -0,0 +1,35 @@
+package pt.tecnico.myDrive.services;
+
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.services.dto.ContentStoreStatsDTO;
+
+public class ContentStoreStatsService extends myDriveService {
+
+  private long _token;
+  private ContentStoreStatsDTO _result;
+
+  /**
+   * Computes how much the content store saves by sharing chunks. Visits every
+   * stored chunk, so it is meant for monitoring, not for the request path,
+   * and only root may run it.
+   */
+  public ContentStoreStatsService(long token) {
+    super();
+    _token = token;
+  }
+
+  @Override
+  protected boolean isReadOnly() {
+    return true;
+  }
+
+  @Override
+  protected void dispatch() {
+    FileSystem fs = getFileSystem();
+    _result = fs.getContentStoreStats(_token);
+  }
+
+  public ContentStoreStatsDTO result() {
+    return _result;
+  }
+}
@@ -0,0 +1,46 @@
+package pt.tecnico.myDrive.services;
+
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.services.dto.DirectoryPageDTO;
+
+public class ListDirectoryPageService extends myDriveService {
+
+  private long _token;
+  private String _path;
+  private String _cursor;
+  private int _limit;
+  private DirectoryPageDTO _result;
+
+  /**
+   * Lists the first page of a directory
+   */
+  public ListDirectoryPageService(long token, String path, int limit) {
+    this(token, path, null, limit);
+  }
+
+  /**
+   * Lists the page of a directory that follows cursor
+   */
+  public ListDirectoryPageService(long token, String path, String cursor, int limit) {
+    super();
+    _token = token;
+    _path = path;
+    _cursor = cursor;
+    _limit = limit;
+  }
+
+  @Override
+  protected boolean isReadOnly() {
+    return true;
+  }
+
+  @Override
+  protected void dispatch() {
+    FileSystem fs = FileSystem.getInstance();
+    _result = fs.listDirectoryPage(_token, _path, _cursor, _limit);
+  }
+
+  public DirectoryPageDTO result() {
+    return _result;
+  }
+}
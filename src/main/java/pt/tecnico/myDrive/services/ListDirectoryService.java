@@ -21,6 +21,11 @@ public class ListDirectoryService extends myDriveService{
     _path = path;
 	}
 
+  @Override
+  protected boolean isReadOnly() {
+    return true;
+  }
+
 	@Override
 	protected void dispatch() {
     FileSystem fs = FileSystem.getInstance();
@@ -0,0 +1,39 @@
+package pt.tecnico.myDrive.services;
+
+import pt.tecnico.myDrive.domain.FileSystem;
+
+public class ReadFileRangeService extends myDriveService {
+
+  private long _token;
+  private String _filepath;
+  private int _offset;
+  private int _length;
+  private String _data;
+
+  /**
+   * Reads at most length characters of a file, starting at offset. Only the
+   * part of the file holding them is loaded.
+   */
+  public ReadFileRangeService(long token, String filepath, int offset, int length) {
+    super();
+    _token = token;
+    _filepath = filepath;
+    _offset = offset;
+    _length = length;
+  }
+
+  @Override
+  protected boolean isReadOnly() {
+    return true;
+  }
+
+  @Override
+  protected void dispatch() {
+    FileSystem fs = getFileSystem();
+    _data = fs.readFile(_token, _filepath, _offset, _length);
+  }
+
+  public String result() {
+    return _data;
+  }
+}
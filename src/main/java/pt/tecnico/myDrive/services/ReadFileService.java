@@ -16,6 +16,11 @@ public class ReadFileService extends myDriveService {
     _filepath = filepath;
 	}
 
+  @Override
+  protected boolean isReadOnly() {
+    return true;
+  }
+
 	@Override
 	protected void dispatch() {
     FileSystem fs = getFileSystem();
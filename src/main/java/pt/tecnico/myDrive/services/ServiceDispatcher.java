@@ -0,0 +1,177 @@
+package pt.tecnico.myDrive.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Executes services on a bounded pool of worker threads, so that the callers
+ * don't wait for them, nor for their transactions' restarts.
+ *
+ * Services waiting for a worker are kept in a queue of bounded depth; what
+ * happens to services submitted when it is full is set by a RejectionPolicy.
+ */
+public class ServiceDispatcher implements AutoCloseable {
+  private static final Logger log = LogManager.getRootLogger();
+
+  /**
+   * What to do with a service submitted when every worker is busy and the
+   * queue is full.
+   */
+  public enum RejectionPolicy {
+    /** Fail its future with a RejectedExecutionException */
+    ABORT,
+    /** Execute it in the submitting thread, slowing submitters down */
+    CALLER_RUNS,
+    /** Block the submitting thread until the queue has room for it */
+    BLOCK
+  }
+
+  private static final AtomicInteger _pools = new AtomicInteger();
+
+  private final ThreadPoolExecutor _executor;
+
+  /**
+   * Creates a dispatcher configured through the mydrive.dispatcher.threads,
+   * mydrive.dispatcher.queue and mydrive.dispatcher.rejection properties,
+   * which default to a thread per processor, a queue of 1024 services and
+   * ABORT.
+   */
+  public ServiceDispatcher() {
+    this(Integer.getInteger("mydrive.dispatcher.threads", Runtime.getRuntime().availableProcessors()),
+        Integer.getInteger("mydrive.dispatcher.queue", 1024),
+        RejectionPolicy.valueOf(System.getProperty("mydrive.dispatcher.rejection", "ABORT")));
+  }
+
+  /**
+   * @param threads number of worker threads
+   * @param queueDepth number of services that may wait for a worker
+   * @param policy what to do with services submitted when the queue is full
+   */
+  public ServiceDispatcher(int threads, int queueDepth, RejectionPolicy policy) {
+    final int pool = _pools.incrementAndGet();
+    _executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(queueDepth),
+        new ThreadFactory() {
+          private final AtomicInteger _threads = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable,
+                "myDrive dispatcher " + pool + " worker " + _threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        },
+        handler(policy));
+  }
+
+  private static RejectedExecutionHandler handler(RejectionPolicy policy) {
+    switch (policy) {
+      case CALLER_RUNS:
+        return new RejectedExecutionHandler() {
+          @Override
+          public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown())
+              throw new RejectedExecutionException("Dispatcher is shut down");
+            task.run();
+          }
+        };
+      case BLOCK:
+        return new RejectedExecutionHandler() {
+          @Override
+          public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown())
+              throw new RejectedExecutionException("Dispatcher is shut down");
+            try {
+              executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new RejectedExecutionException("Interrupted while waiting for the queue", e);
+            }
+          }
+        };
+      case ABORT:
+      default:
+        return new ThreadPoolExecutor.AbortPolicy();
+    }
+  }
+
+  /**
+   * Submits service to be executed by a worker.
+   *
+   * @return A future completed with service once it has executed, from which
+   * its result can be read, or with the exception it threw. If the service is
+   * rejected, the future fails with a RejectedExecutionException.
+   */
+  public <S extends myDriveService> CompletableFuture<S> submit(final S service) {
+    final CompletableFuture<S> future = new CompletableFuture<S>();
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        if (future.isDone())
+          return;
+        try {
+          service.execute();
+          future.complete(service);
+        } catch (Throwable t) {
+          future.completeExceptionally(t);
+        }
+      }
+    };
+
+    try {
+      _executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      log.warn("Rejected " + service.getClass().getSimpleName() + ": " + e.getMessage());
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * @return Number of services waiting for a worker.
+   */
+  public int getQueued() {
+    return _executor.getQueue().size();
+  }
+
+  /**
+   * @return Number of workers executing services.
+   */
+  public int getActive() {
+    return _executor.getActiveCount();
+  }
+
+  /**
+   * Stops accepting services, letting the submitted ones execute.
+   */
+  public void shutdown() {
+    _executor.shutdown();
+  }
+
+  /**
+   * @return Whether every submitted service executed within the timeout.
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return _executor.awaitTermination(timeout, unit);
+  }
+
+  /**
+   * Shuts down and waits for the submitted services to execute.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    shutdown();
+    while (!awaitTermination(1, TimeUnit.MINUTES))
+      log.warn("Still waiting for submitted services to execute");
+  }
+}
@@ -0,0 +1,173 @@
+package pt.tecnico.myDrive.services;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Execution statistics of a service class, kept by myDriveService.execute.
+ * Restarts are the attempts beyond the first of each execution, so they count
+ * the transactions aborted because of conflicts, or upgraded from read to
+ * write.
+ */
+public final class ServiceStats implements ServiceStatsMXBean {
+  private static final Logger log = LogManager.getRootLogger();
+
+  private static final int BUCKETS = 64;
+
+  private static final ConcurrentMap<String, ServiceStats> _stats =
+    new ConcurrentHashMap<String, ServiceStats>();
+
+  private final String _service;
+  private final LongAdder _invocations = new LongAdder();
+  private final LongAdder _attempts = new LongAdder();
+  private final LongAdder _commits = new LongAdder();
+  private final LongAdder _nanos = new LongAdder();
+  private final AtomicLongArray _histogram = new AtomicLongArray(BUCKETS);
+
+  private ServiceStats(String service) {
+    _service = service;
+  }
+
+  /**
+   * @return The statistics of service, registered with the platform MBean
+   * server the first time they are requested.
+   */
+  public static ServiceStats of(Class<? extends myDriveService> service) {
+    ServiceStats stats = _stats.get(service.getName());
+    if (stats == null) {
+      ServiceStats created = new ServiceStats(service.getName());
+      stats = _stats.putIfAbsent(service.getName(), created);
+      if (stats == null) {
+        stats = created;
+        stats.register(service.getSimpleName());
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * @return The statistics of every service executed so far, by class name.
+   */
+  public static Map<String, ServiceStats> all() {
+    return Collections.unmodifiableMap(_stats);
+  }
+
+  private void register(String name) {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+          new ObjectName("pt.tecnico.myDrive:type=ServiceStats,name=" + name));
+    } catch (JMException e) {
+      log.warn("Couldn't register statistics of " + _service + ": " + e.getMessage());
+    }
+  }
+
+  /** Called at the start of each transaction run by the service */
+  void attempt() {
+    _attempts.increment();
+  }
+
+  /** Called once each execution of the service is over */
+  void executed(long nanos, boolean committed) {
+    _invocations.increment();
+    if (committed)
+      _commits.increment();
+    _nanos.add(nanos);
+    _histogram.incrementAndGet(bucket(nanos));
+  }
+
+  private static int bucket(long nanos) {
+    return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+  }
+
+  public String getService() {
+    return _service;
+  }
+
+  @Override
+  public long getInvocations() {
+    return _invocations.sum();
+  }
+
+  @Override
+  public long getAttempts() {
+    return _attempts.sum();
+  }
+
+  @Override
+  public long getCommits() {
+    return _commits.sum();
+  }
+
+  @Override
+  public long getFailures() {
+    return getInvocations() - getCommits();
+  }
+
+  @Override
+  public long getRestarts() {
+    return Math.max(getAttempts() - getInvocations(), 0);
+  }
+
+  @Override
+  public double getRestartRatio() {
+    long invocations = getInvocations();
+    return invocations == 0 ? 0 : (double) getRestarts() / invocations;
+  }
+
+  @Override
+  public double getMeanLatencyMicros() {
+    long invocations = getInvocations();
+    return invocations == 0 ? 0 : _nanos.sum() / 1000.0 / invocations;
+  }
+
+  @Override
+  public long[] getLatencyHistogram() {
+    long[] histogram = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++)
+      histogram[i] = _histogram.get(i);
+    return histogram;
+  }
+
+  @Override
+  public double getLatencyPercentileMicros(double fraction) {
+    long[] histogram = getLatencyHistogram();
+    long total = 0;
+    for (long count : histogram)
+      total += count;
+
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += histogram[i];
+      if (seen > 0 && seen >= fraction * total)
+        return Math.scalb(1.0, i + 1) / 1000.0;
+    }
+    return 0;
+  }
+
+  @Override
+  public void reset() {
+    _invocations.reset();
+    _attempts.reset();
+    _commits.reset();
+    _nanos.reset();
+    for (int i = 0; i < BUCKETS; i++)
+      _histogram.set(i, 0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %d invocations, %d commits, %d restarts, %.1fus mean",
+        _service, getInvocations(), getCommits(), getRestarts(), getMeanLatencyMicros());
+  }
+}
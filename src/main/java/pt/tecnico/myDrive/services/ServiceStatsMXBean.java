@@ -0,0 +1,43 @@
+package pt.tecnico.myDrive.services;
+
+/**
+ * Management interface of the statistics of a service, registered as
+ * pt.tecnico.myDrive:type=ServiceStats,name=&lt;service class name&gt;.
+ */
+public interface ServiceStatsMXBean {
+
+  /** @return Number of times the service was executed */
+  long getInvocations();
+
+  /** @return Number of times a transaction of the service was started */
+  long getAttempts();
+
+  /** @return Number of executions that committed */
+  long getCommits();
+
+  /** @return Number of executions that threw */
+  long getFailures();
+
+  /** @return Number of times a transaction had to be restarted */
+  long getRestarts();
+
+  /** @return Restarts per invocation */
+  double getRestartRatio();
+
+  /** @return Mean latency of an execution, restarts included, in microseconds */
+  double getMeanLatencyMicros();
+
+  /**
+   * @return Executions per latency bucket: bucket i counts the executions
+   * that took from 2^i, inclusive, to 2^(i+1), exclusive, nanoseconds.
+   */
+  long[] getLatencyHistogram();
+
+  /**
+   * @return Upper bound, in microseconds, of the latency of the given
+   * fraction of the executions, e.g. 0.99 for the 99th percentile.
+   */
+  double getLatencyPercentileMicros(double fraction);
+
+  void reset();
+}
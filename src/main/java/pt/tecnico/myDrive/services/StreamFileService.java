@@ -0,0 +1,48 @@
+package pt.tecnico.myDrive.services;
+
+import pt.tecnico.myDrive.domain.ContentReader;
+import pt.tecnico.myDrive.domain.FileSystem;
+
+public class StreamFileService extends myDriveService {
+
+  private long _token;
+  private String _filepath;
+  private int _offset;
+  private int _length;
+  private ContentReader _reader;
+
+  /**
+   * Opens a reader over the whole file
+   */
+  public StreamFileService(long token, String filepath) {
+    this(token, filepath, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Opens a reader over at most length characters of a file, starting at
+   * offset. The service only resolves the file and checks permissions; the
+   * reader loads the content afterwards, a chunk per transaction.
+   */
+  public StreamFileService(long token, String filepath, int offset, int length) {
+    super();
+    _token = token;
+    _filepath = filepath;
+    _offset = offset;
+    _length = length;
+  }
+
+  @Override
+  protected boolean isReadOnly() {
+    return true;
+  }
+
+  @Override
+  protected void dispatch() {
+    FileSystem fs = getFileSystem();
+    _reader = fs.openFile(_token, _filepath, _offset, _length);
+  }
+
+  public ContentReader result() {
+    return _reader;
+  }
+}
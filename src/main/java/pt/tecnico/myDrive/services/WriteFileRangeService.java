@@ -0,0 +1,29 @@
+package pt.tecnico.myDrive.services;
+
+import pt.tecnico.myDrive.domain.FileSystem;
+
+public class WriteFileRangeService extends myDriveService {
+
+  private long _token;
+  private String _filepath;
+  private int _offset;
+  private String _data;
+
+  /**
+   * Writes content over a file starting at offset, leaving the rest of the
+   * file untouched and extending it if content goes past its end.
+   */
+  public WriteFileRangeService(long token, String filepath, int offset, String content) {
+    super();
+    _token = token;
+    _filepath = filepath;
+    _offset = offset;
+    _data = content;
+  }
+
+  @Override
+  protected void dispatch() {
+    FileSystem fs = getFileSystem();
+    fs.writeFile(_token, _filepath, _offset, _data);
+  }
+}
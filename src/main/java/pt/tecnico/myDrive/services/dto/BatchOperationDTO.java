@@ -0,0 +1,53 @@
+package pt.tecnico.myDrive.services.dto;
+
+/**
+ * An operation of a batch. Paths and names are relative to the current
+ * directory of the session the batch runs in.
+ */
+public class BatchOperationDTO {
+
+  public enum Type { CREATE, WRITE, DELETE }
+
+  private final Type _type;
+  private final String _path;
+  private final String _fileType;
+  private final String _content;
+
+  private BatchOperationDTO(Type type, String path, String fileType, String content) {
+    _type = type;
+    _path = path;
+    _fileType = fileType;
+    _content = content;
+  }
+
+  /**
+   * @param fileType as given to CreateFileService, such as "plainfile"
+   */
+  public static BatchOperationDTO create(String name, String fileType, String content) {
+    return new BatchOperationDTO(Type.CREATE, name, fileType, content);
+  }
+
+  public static BatchOperationDTO write(String path, String content) {
+    return new BatchOperationDTO(Type.WRITE, path, null, content);
+  }
+
+  public static BatchOperationDTO delete(String name) {
+    return new BatchOperationDTO(Type.DELETE, name, null, null);
+  }
+
+  public Type getType() {
+    return _type;
+  }
+
+  public String getPath() {
+    return _path;
+  }
+
+  public String getFileType() {
+    return _fileType;
+  }
+
+  public String getContent() {
+    return _content;
+  }
+}
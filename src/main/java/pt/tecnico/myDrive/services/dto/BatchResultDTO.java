@@ -0,0 +1,36 @@
+package pt.tecnico.myDrive.services.dto;
+
+import pt.tecnico.myDrive.exceptions.MyDriveException;
+
+/**
+ * Outcome of an operation of a batch.
+ */
+public class BatchResultDTO {
+
+  private static final BatchResultDTO SUCCESS = new BatchResultDTO(null);
+
+  private final MyDriveException _error;
+
+  private BatchResultDTO(MyDriveException error) {
+    _error = error;
+  }
+
+  public static BatchResultDTO success() {
+    return SUCCESS;
+  }
+
+  public static BatchResultDTO failure(MyDriveException error) {
+    return new BatchResultDTO(error);
+  }
+
+  public boolean isSuccess() {
+    return _error == null;
+  }
+
+  /**
+   * @return The reason the operation failed, null if it succeeded.
+   */
+  public MyDriveException getError() {
+    return _error;
+  }
+}
@@ -0,0 +1,94 @@
+package pt.tecnico.myDrive.services.dto;
+
+/**
+ * How much the content store saves by sharing chunks among files and by
+ * compressing them. Lengths are in characters, sizes in bytes.
+ */
+public class ContentStoreStatsDTO {
+
+  private final long _chunks;
+  private final long _references;
+  private final long _storedLength;
+  private final long _referencedLength;
+  private final long _compressedChunks;
+  private final long _compressedLength;
+  private final long _compressedSize;
+
+  /**
+   * @param chunks number of distinct chunks stored.
+   * @param references number of file positions holding them.
+   * @param storedLength length of the distinct chunks.
+   * @param referencedLength length the files would take without sharing.
+   * @param compressedChunks number of distinct chunks stored compressed.
+   * @param compressedLength length of the chunks stored compressed.
+   * @param compressedSize size those chunks take compressed.
+   */
+  public ContentStoreStatsDTO(long chunks, long references, long storedLength, long referencedLength,
+      long compressedChunks, long compressedLength, long compressedSize) {
+    _chunks = chunks;
+    _references = references;
+    _storedLength = storedLength;
+    _referencedLength = referencedLength;
+    _compressedChunks = compressedChunks;
+    _compressedLength = compressedLength;
+    _compressedSize = compressedSize;
+  }
+
+  public long getChunks() {
+    return _chunks;
+  }
+
+  public long getReferences() {
+    return _references;
+  }
+
+  public long getStoredLength() {
+    return _storedLength;
+  }
+
+  public long getReferencedLength() {
+    return _referencedLength;
+  }
+
+  public long getCompressedChunks() {
+    return _compressedChunks;
+  }
+
+  public long getCompressedLength() {
+    return _compressedLength;
+  }
+
+  public long getCompressedSize() {
+    return _compressedSize;
+  }
+
+  /**
+   * @return Characters of content per byte stored, over the compressed
+   * chunks; 1 when none is.
+   */
+  public double getCompressionRatio() {
+    return _compressedSize == 0 ? 1 : (double) _compressedLength / _compressedSize;
+  }
+
+  /**
+   * @return Length not stored thanks to sharing.
+   */
+  public long getSavedLength() {
+    return _referencedLength - _storedLength;
+  }
+
+  /**
+   * @return Length the files would take without sharing over the length
+   * actually stored; 1 when nothing is stored.
+   */
+  public double getDedupRatio() {
+    return _storedLength == 0 ? 1 : (double) _referencedLength / _storedLength;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d chunks, %d references, %d stored, %d saved (%.2fx), %d compressed (%.2fx)",
+        _chunks, _references, _storedLength, getSavedLength(), getDedupRatio(),
+        _compressedChunks, getCompressionRatio());
+  }
+}
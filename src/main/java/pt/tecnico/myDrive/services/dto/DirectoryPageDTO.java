@@ -0,0 +1,33 @@
+package pt.tecnico.myDrive.services.dto;
+
+import java.util.List;
+
+/**
+ * A page of a directory listing. Entries come sorted by name; the next page
+ * starts right after the cursor.
+ */
+public class DirectoryPageDTO {
+
+  private final List<FileEntryDTO> _entries;
+  private final String _nextCursor;
+
+  /**
+   * @param nextCursor cursor of the next page, null if this is the last one.
+   */
+  public DirectoryPageDTO(List<FileEntryDTO> entries, String nextCursor) {
+    _entries = entries;
+    _nextCursor = nextCursor;
+  }
+
+  public List<FileEntryDTO> getEntries() {
+    return _entries;
+  }
+
+  public String getNextCursor() {
+    return _nextCursor;
+  }
+
+  public boolean hasNext() {
+    return _nextCursor != null;
+  }
+}
@@ -0,0 +1,58 @@
+package pt.tecnico.myDrive.services.dto;
+
+import org.joda.time.DateTime;
+
+/**
+ * Description of a file as shown in a directory listing.
+ */
+public class FileEntryDTO {
+
+  private final String _type;
+  private final String _permissions;
+  private final String _name;
+  private final int _size;
+  private final DateTime _lastModified;
+  private final String _linkTarget;
+
+  /**
+   * @param type one of "d", "-", "l" or "a", as in the textual listing.
+   * @param linkTarget path the file points to, null if it isn't a link.
+   */
+  public FileEntryDTO(String type, String permissions, String name, int size,
+      DateTime lastModified, String linkTarget) {
+    _type = type;
+    _permissions = permissions;
+    _name = name;
+    _size = size;
+    _lastModified = lastModified;
+    _linkTarget = linkTarget;
+  }
+
+  public String getType() {
+    return _type;
+  }
+
+  public String getPermissions() {
+    return _permissions;
+  }
+
+  public String getName() {
+    return _name;
+  }
+
+  public int getSize() {
+    return _size;
+  }
+
+  public DateTime getLastModified() {
+    return _lastModified;
+  }
+
+  public String getLinkTarget() {
+    return _linkTarget;
+  }
+
+  public boolean isLink() {
+    return _linkTarget != null;
+  }
+}
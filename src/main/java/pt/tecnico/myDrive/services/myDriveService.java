@@ -6,6 +6,8 @@ import org.apache.logging.log4j.Logger;
 
 import pt.tecnico.myDrive.domain.FileSystem;
 import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.Atomic.TxMode;
+import pt.ist.fenixframework.core.WriteOnReadError;
 
 public abstract class myDriveService {
   protected static final Logger log = LogManager.getRootLogger();
@@ -17,9 +19,92 @@ public abstract class myDriveService {
     return FileSystem.getInstance();
   }
 
-  @Atomic
+  /**
+   * Runs the service in a transaction. Read-only services run in read
+   * transactions, which don't go through the write commit path and don't
+   * conflict with each other; writing services go straight to a write
+   * transaction.
+   *
+   * Every execution is accounted for in the statistics of the service class.
+   */
   public final void execute() {
-    dispatch();
+    ServiceStats stats = ServiceStats.of(getClass());
+    long start = System.nanoTime();
+    boolean committed = false;
+    try {
+      if (isReadOnly())
+        executeReadOnly(stats);
+      else
+        executeWrite(stats);
+      committed = true;
+    } finally {
+      stats.executed(System.nanoTime() - start, committed);
+    }
+  }
+
+  /**
+   * The session token is never extended in the read transaction, which
+   * can't write, but in a short write transaction after it, and only when
+   * it is due to be, so most reads don't write at all.
+   *
+   * Objects persisted by older versions are upgraded the first time they
+   * are used, which writes. A read transaction the framework stops for
+   * writing is therefore run again as a write one; any other failure is the
+   * service's own and goes through.
+   */
+  private void executeReadOnly(ServiceStats stats) {
+    boolean done = false;
+    Long staleToken;
+    FileSystem.startReadOnly();
+    try {
+      executeRead(stats);
+      done = true;
+    } catch (WriteOnReadError e) {
+      log.info(getClass().getSimpleName() + " wrote in a read transaction, running it as a write");
+    } finally {
+      staleToken = FileSystem.finishReadOnly();
+    }
+
+    if (!done)
+      executeWrite(stats);
+    else if (staleToken != null)
+      refreshToken(staleToken);
+  }
+
+  @Atomic(mode = TxMode.READ)
+  private void executeRead(ServiceStats stats) {
+    stats.attempt();
+    run();
+  }
+
+  @Atomic(mode = TxMode.WRITE)
+  private static void refreshToken(long token) {
+    getFileSystem().refreshToken(token);
+  }
+
+  @Atomic(mode = TxMode.WRITE)
+  private void executeWrite(ServiceStats stats) {
+    stats.attempt();
+    run();
+  }
+
+  /**
+   * The session the service started is ended once it is done, so that the
+   * thread can serve other requests.
+   */
+  private void run() {
+    try {
+      dispatch();
+    } finally {
+      FileSystem.endSession();
+    }
+  }
+
+  /**
+   * @return Whether the service only reads the filesystem.
+   */
+  protected boolean isReadOnly() {
+    return false;
   }
 
   protected abstract void dispatch();
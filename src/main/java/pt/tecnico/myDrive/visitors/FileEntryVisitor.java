@@ -0,0 +1,42 @@
+package pt.tecnico.myDrive.visitors;
+
+import pt.tecnico.myDrive.domain.App;
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.Link;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.File;
+
+import pt.tecnico.myDrive.visitors.GenericVisitor;
+
+import pt.tecnico.myDrive.services.dto.FileEntryDTO;
+
+/**
+ * Describes the visited file as a directory listing entry.
+ */
+public class FileEntryVisitor implements GenericVisitor<FileEntryDTO> {
+
+  @Override
+  public FileEntryDTO visit(Directory dir) {
+    return entry("d", dir, null);
+  }
+
+  @Override
+  public FileEntryDTO visit(PlainFile pf) {
+    return entry("-", pf, null);
+  }
+
+  @Override
+  public FileEntryDTO visit(Link l) {
+    return entry("l", l, l.getData(l.getOwner()));
+  }
+
+  @Override
+  public FileEntryDTO visit(App a) {
+    return entry("a", a, null);
+  }
+
+  private FileEntryDTO entry(String type, File file, String linkTarget) {
+    return new FileEntryDTO(type, file.getUserPermission() + file.getOthersPermission(),
+        file.getName(), file.getSize(), file.getLastModified(), linkTarget);
+  }
+}
@@ -55,7 +55,7 @@ public class XMLExporterVisitor implements GenericVisitor<Element>{
     Element plainPerm = new Element("perm");
     plainPerm.setText(pf.getUserPermission() + pf.getOthersPermission());
 
-    Element plainContent = new Element("content");
+    Element plainContent = new Element("contents");
     plainContent.setText(pf.getData(pf.getOwner()));
 
     plain.addContent(plainPath);
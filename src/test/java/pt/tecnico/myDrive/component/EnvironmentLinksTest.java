@@ -61,10 +61,8 @@ public class EnvironmentLinksTest extends AbstractComponentTest {
   public void changeDirectory() {
 
     new MockUp<FileSystem> () {
-      @Mock public ArrayList<String> processEnvVars(String token){
-        ArrayList<String> a = new ArrayList<String>();
-        a.add("user8888");
-        return a;
+      @Mock public String resolveEnvVar(String token){
+        return "user8888";
       }
     };
 
@@ -84,10 +82,8 @@ public class EnvironmentLinksTest extends AbstractComponentTest {
   public void createFile() {
 
     new MockUp<FileSystem> () {
-      @Mock public ArrayList<String> processEnvVars(String token){
-        ArrayList<String> a = new ArrayList<String>();
-        a.add("test");
-        return a;
+      @Mock public String resolveEnvVar(String token){
+        return "test";
       }
     };
 
@@ -111,10 +107,8 @@ public class EnvironmentLinksTest extends AbstractComponentTest {
   public void deleteFile() {
 
     new MockUp<FileSystem> () {
-      @Mock public ArrayList<String> processEnvVars(String token){
-        ArrayList<String> a = new ArrayList<String>();
-        a.add("pf");
-        return a;
+      @Mock public String resolveEnvVar(String token){
+        return "pf";
       }
     };
 
@@ -139,10 +133,8 @@ public class EnvironmentLinksTest extends AbstractComponentTest {
   public void executeFile() {
 
     new MockUp<FileSystem> () {
-      @Mock public ArrayList<String> processEnvVars(String token){
-        ArrayList<String> a = new ArrayList<String>();
-        a.add("app");
-        return a;
+      @Mock public String resolveEnvVar(String token){
+        return "app";
       }
     };
 
@@ -161,10 +153,8 @@ public class EnvironmentLinksTest extends AbstractComponentTest {
   public void listDirectory() {
 
     new MockUp<FileSystem> () {
-      @Mock public ArrayList<String> processEnvVars(String token){
-        ArrayList<String> a = new ArrayList<String>();
-        a.add("user8888");
-        return a;
+      @Mock public String resolveEnvVar(String token){
+        return "user8888";
       }
     };
 
@@ -192,10 +182,8 @@ public class EnvironmentLinksTest extends AbstractComponentTest {
   public void readFile() {
 
     new MockUp<FileSystem> () {
-      @Mock public ArrayList<String> processEnvVars(String token){
-        ArrayList<String> a = new ArrayList<String>();
-        a.add("pf");
-        return a;
+      @Mock public String resolveEnvVar(String token){
+        return "pf";
       }
     };
 
@@ -211,10 +199,8 @@ public class EnvironmentLinksTest extends AbstractComponentTest {
   public void writeFile() {
 
     new MockUp<FileSystem> () {
-      @Mock public ArrayList<String> processEnvVars(String token){
-        ArrayList<String> a = new ArrayList<String>();
-        a.add("pf");
-        return a;
+      @Mock public String resolveEnvVar(String token){
+        return "pf";
       }
     };
 
@@ -0,0 +1,69 @@
+package pt.tecnico.myDrive.domain;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import pt.tecnico.myDrive.service.AbstractServiceTest;
+
+import pt.tecnico.myDrive.exceptions.FileUnknownException;
+
+public class DirectoryIndexTest extends AbstractServiceTest {
+
+  private FileSystem _fs;
+  private User _user;
+  private Directory _home;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    _fs = FileSystem.getInstance();
+    _user = new User(_fs, "indexer", "indexer", "indexer");
+    _home = new Directory(_fs, "indexer", _fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(_home);
+
+    new PlainFile(_fs, "a", _home, _user, "a");
+    new PlainFile(_fs, "b", _home, _user, "b");
+    new Directory(_fs, "c", _home, _user);
+  }
+
+  @Test
+  public void lookup() {
+    assertEquals("b", ((PlainFile) _home.getFileByName("b")).getData(_user));
+    assertEquals(5, _home.getSize());
+  }
+
+  @Test(expected = FileUnknownException.class)
+  public void lookupAfterRemove() {
+    _home.remove("b", _user);
+    assertEquals(4, _home.getSize());
+    _home.getFileByName("b");
+  }
+
+  @Test
+  public void recreateRemovedName() {
+    _home.remove("b", _user);
+    new PlainFile(_fs, "b", _home, _user, "again");
+
+    assertEquals("again", ((PlainFile) _home.getFileByName("b")).getData(_user));
+    assertEquals(5, _home.getSize());
+  }
+
+  @Test
+  public void indexBuiltWhenMissing() {
+    _home.dropIndex();
+
+    assertTrue(_home.getFileByName("c") instanceof Directory);
+    assertEquals("a", ((PlainFile) _home.getFileByName("a")).getData(_user));
+    assertEquals(5, _home.getSize());
+  }
+
+  @Test(expected = FileUnknownException.class)
+  public void removedDirectoryIndexIsGone() {
+    Directory c = (Directory) _home.getFileByName("c");
+    new PlainFile(_fs, "inside", c, _user, "");
+    _home.remove("c", _user);
+    _home.getFileByName("c");
+  }
+}
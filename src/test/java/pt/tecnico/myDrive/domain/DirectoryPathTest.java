@@ -0,0 +1,75 @@
+package pt.tecnico.myDrive.domain;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import pt.tecnico.myDrive.service.AbstractServiceTest;
+
+import pt.tecnico.myDrive.exceptions.InvalidFilepathSizeException;
+
+public class DirectoryPathTest extends AbstractServiceTest {
+
+  private static final int DEPTH = 50;
+
+  private FileSystem _fs;
+  private User _user;
+  private Directory _home;
+  private Directory _deepest;
+  private String _deepestPath;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    _fs = FileSystem.getInstance();
+    _user = new User(_fs, "deepuser", "deepuser", "deepuser");
+    _home = new Directory(_fs, "deepuser", _fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(_home);
+
+    StringBuilder path = new StringBuilder("/home/deepuser");
+    Directory dir = _home;
+    for (int i = 0; i < DEPTH; i++) {
+      dir = new Directory(_fs, "d" + i, dir, _user);
+      path.append("/d").append(i);
+    }
+    _deepest = dir;
+    _deepestPath = path.toString();
+  }
+
+  @Test
+  public void pathOfTopLevelDirectories() {
+    assertEquals("/home", _fs.getHomeDirectory().getPath());
+    assertEquals("/home/deepuser", _home.getPath());
+    assertEquals(_home.getPath().length(), (int) _home.getPathLength());
+  }
+
+  @Test
+  public void pathOfDeepTree() {
+    assertEquals(_deepestPath, _deepest.getPath());
+    assertEquals(_deepestPath.length(), (int) _deepest.getPathLength());
+  }
+
+  @Test
+  public void pathLengthOfLegacyDirectories() {
+    Directory dir = _deepest;
+    while (dir != _home) {
+      dir.forgetPathLength();
+      dir = dir.getParent();
+    }
+
+    assertEquals(_deepestPath.length(), (int) _deepest.getPathLength());
+    assertEquals(_deepestPath, _deepest.getPath());
+    Directory child = new Directory(_fs, "child", _deepest, _user);
+    assertEquals(_deepestPath + "/child", child.getPath());
+    assertEquals(child.getPath().length(), (int) child.getPathLength());
+  }
+
+  @Test(expected = InvalidFilepathSizeException.class)
+  public void pathTooLong() {
+    StringBuilder name = new StringBuilder();
+    while (_deepestPath.length() + name.length() < 1024)
+      name.append('x');
+    new PlainFile(_fs, name.toString(), _deepest, _user, "");
+  }
+}
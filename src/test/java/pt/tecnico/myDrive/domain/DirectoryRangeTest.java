@@ -0,0 +1,79 @@
+package pt.tecnico.myDrive.domain;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import pt.tecnico.myDrive.service.AbstractServiceTest;
+
+public class DirectoryRangeTest extends AbstractServiceTest {
+
+  private User _user;
+  private Directory _home;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    FileSystem fs = FileSystem.getInstance();
+    _user = new User(fs, "ranger", "ranger", "ranger");
+    _home = new Directory(fs, "ranger", fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(_home);
+
+    for (String name : new String[] { "date", "apple", "cherry", "apricot", "banana" })
+      new PlainFile(fs, name, _home, _user, name);
+  }
+
+  private static List<String> names(List<File> files) {
+    List<String> names = new ArrayList<String>();
+    for (File file : files)
+      names.add(file.getName());
+    return names;
+  }
+
+  @Test
+  public void after() {
+    assertEquals(Arrays.asList("apple", "apricot"), names(_home.listFilesAfter(null, 2, _user)));
+    assertEquals(Arrays.asList("banana", "cherry"), names(_home.listFilesAfter("apricot", 2, _user)));
+    assertEquals(Arrays.asList("banana", "cherry", "date"), names(_home.listFilesAfter("b", 10, _user)));
+    assertTrue(_home.listFilesAfter("date", 10, _user).isEmpty());
+  }
+
+  @Test
+  public void between() {
+    assertEquals(Arrays.asList("apricot", "banana"), names(_home.listFilesBetween("apricot", "cherry", _user)));
+    assertEquals(Arrays.asList("apple", "apricot"), names(_home.listFilesBetween(null, "b", _user)));
+    assertEquals(Arrays.asList("cherry", "date"), names(_home.listFilesBetween("c", null, _user)));
+  }
+
+  @Test
+  public void betweenEmptyRange() {
+    assertTrue(_home.listFilesBetween("cherry", "cherry", _user).isEmpty());
+    assertTrue(_home.listFilesBetween("date", "apple", _user).isEmpty());
+  }
+
+  @Test
+  public void betweenBoundsMatchingNoName() {
+    assertEquals(Arrays.asList("banana"), names(_home.listFilesBetween("b", "c", _user)));
+    assertTrue(_home.listFilesBetween("e", "z", _user).isEmpty());
+    assertTrue(_home.listFilesBetween("0", "a", _user).isEmpty());
+  }
+
+  @Test
+  public void prefix() {
+    assertEquals(Arrays.asList("apple", "apricot"), names(_home.listFilesWithPrefix("ap", _user)));
+    assertEquals(Arrays.asList("cherry"), names(_home.listFilesWithPrefix("ch", _user)));
+    assertTrue(_home.listFilesWithPrefix("x", _user).isEmpty());
+  }
+
+  @Test
+  public void prefixAtTheEnd() {
+    assertEquals(Arrays.asList("date"), names(_home.listFilesWithPrefix("d", _user)));
+    assertEquals(Arrays.asList("date"), names(_home.listFilesWithPrefix("date", _user)));
+    assertTrue(_home.listFilesWithPrefix("dates", _user).isEmpty());
+  }
+}
@@ -0,0 +1,119 @@
+package pt.tecnico.myDrive.domain;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import pt.ist.fenixframework.FenixFramework;
+
+import pt.tecnico.myDrive.service.AbstractServiceTest;
+
+/**
+ * Blocks are reserved in transactions of their own, committed whatever
+ * becomes of the one the test runs in, so the ids they hand out are never
+ * reused by later tests either.
+ */
+public class IdAllocatorTest extends AbstractServiceTest {
+
+  private static final int THREADS = 8;
+  private static final int IDS = 500;
+
+  private FileSystem _fs;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    _fs = FileSystem.getInstance();
+  }
+
+  /**
+   * @return The id counter as committed, read in a transaction of its own.
+   */
+  private static int committedHighestId() throws Exception {
+    final AtomicReference<Object> result = new AtomicReference<Object>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          FenixFramework.getTransactionManager().begin(true);
+          try {
+            result.set(FenixFramework.getDomainRoot().getFileSystem().getHighestId());
+          } finally {
+            FenixFramework.getTransactionManager().commit();
+          }
+        } catch (Throwable t) {
+          result.set(t);
+        }
+      }
+    };
+    thread.start();
+    thread.join();
+    if (result.get() instanceof Throwable)
+      throw new AssertionError("Reading the id counter failed", (Throwable) result.get());
+    return (Integer) result.get();
+  }
+
+  @Test
+  public void uniqueAcrossThreads() throws Exception {
+    final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < THREADS; t++) {
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            for (int i = 0; i < IDS; i++)
+              if (!ids.add(_fs.requestId()))
+                throw new AssertionError("Id handed out twice");
+          } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+          }
+        }
+      };
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads)
+      thread.join();
+
+    if (failure.get() != null)
+      throw new AssertionError("Requesting ids failed", failure.get());
+    assertEquals(THREADS * IDS, ids.size());
+  }
+
+  @Test
+  public void aboveHighWaterMarkAfterRestart() throws Exception {
+    int before = _fs.requestId();
+    int mark = committedHighestId();
+    assertTrue(before <= mark);
+
+    IdAllocator.reset();
+    int after = _fs.requestId();
+
+    // The rest of the block held before the restart is skipped
+    assertTrue(after > mark);
+    assertTrue(committedHighestId() >= after);
+  }
+
+  @Test
+  public void aboveReservedIds() throws Exception {
+    int before = _fs.requestId();
+    IdAllocator.reserveUpTo(_fs, before + 1000);
+
+    // Nothing is left for the test's transaction to conflict on
+    assertTrue(committedHighestId() >= before + 1000);
+    assertTrue(_fs.requestId() > before + 1000);
+  }
+}
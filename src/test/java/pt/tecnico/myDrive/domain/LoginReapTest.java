@@ -0,0 +1,87 @@
+package pt.tecnico.myDrive.domain;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import pt.tecnico.myDrive.service.AbstractServiceTest;
+
+public class LoginReapTest extends AbstractServiceTest {
+
+  private static final String PASSWORD = "reaperpassword";
+
+  private FileSystem _fs;
+  private User _user;
+  private long _nextToken = 8100l;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    _fs = FileSystem.getInstance();
+    _user = new User(_fs, "reaper", "reaper", PASSWORD);
+    _user.setHomeDirectory(new Directory(_fs, "reaper", _fs.getHomeDirectory(), _user));
+  }
+
+  private Login login(boolean expired) {
+    Login login = new Login(_fs, _user, _user.getHomeDirectory(), _nextToken++);
+    if (expired)
+      login.reduceExpirationDate(1000, 0, 0);
+    return login;
+  }
+
+  private int live(long from, long to) {
+    int count = 0;
+    for (long token = from; token < to; token++)
+      if (_fs.existsToken(token))
+        count++;
+    return count;
+  }
+
+  @Test
+  public void reapsInBatches() {
+    long first = _nextToken;
+    for (int i = 0; i < FileSystem.REAP_BATCH + 8; i++)
+      login(true);
+    long last = _nextToken;
+
+    _fs.login("reaper", PASSWORD);
+    assertEquals(8, live(first, last));
+
+    _fs.login("reaper", PASSWORD);
+    assertEquals(0, live(first, last));
+  }
+
+  @Test
+  public void stopsAtFirstValidLogin() {
+    long first = _nextToken;
+    login(true);
+    login(true);
+    login(true);
+    Login valid = login(false);
+
+    _fs.login("reaper", PASSWORD);
+    assertEquals(1, live(first, _nextToken));
+    assertTrue(_fs.isValidToken(valid.getTokenKey()));
+  }
+
+  @Test
+  public void extendedLoginRescheduled() {
+    Login extended = login(true);
+    Login expired = login(true);
+    extended.extendToken();
+
+    _fs.login("reaper", PASSWORD);
+    assertTrue(_fs.existsToken(extended.getTokenKey()));
+    assertFalse(_fs.existsToken(expired.getTokenKey()));
+  }
+
+  @Test
+  public void shortenedLoginRescheduled() {
+    Login shortened = login(false);
+    shortened.reduceExpirationDate(1000, 0, 0);
+
+    _fs.login("reaper", PASSWORD);
+    assertFalse(_fs.existsToken(shortened.getTokenKey()));
+  }
+}
@@ -0,0 +1,95 @@
+package pt.tecnico.myDrive.domain;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import org.jdom2.Element;
+
+import pt.tecnico.myDrive.service.AbstractServiceTest;
+
+import pt.tecnico.myDrive.exceptions.FileUnknownException;
+import pt.tecnico.myDrive.exceptions.InsufficientPermissionsException;
+
+public class ResolvedPathCacheTest extends AbstractServiceTest {
+
+  private static final String PATH = "/home/cacheowner/a/f";
+
+  private FileSystem _fs;
+  private Directory _root;
+  private User _owner, _other;
+  private Directory _a;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    _fs = FileSystem.getInstance();
+    _root = (Directory) _fs.getFileByPath("/", null, null);
+
+    _owner = new User(_fs, "cacheowner", "cacheowner", "cacheowner", "rwxdrwxd");
+    Directory home = new Directory(_fs, "cacheowner", _fs.getHomeDirectory(), _owner);
+    _owner.setHomeDirectory(home);
+    _a = new Directory(_fs, "a", home, _owner);
+    new PlainFile(_fs, "f", _a, _owner, "f");
+
+    _other = new User(_fs, "cacheother", "cacheother", "cacheother");
+    _other.setHomeDirectory(new Directory(_fs, "cacheother", _fs.getHomeDirectory(), _other));
+
+    ResolvedPathCache.clear();
+    _fs.getFileByPath(PATH, _owner, _root);
+  }
+
+  private File revalidate(User user) {
+    ResolvedPath cached = ResolvedPathCache.get(_root, PATH);
+    assertNotNull("Resolution was cached.", cached);
+    return cached.revalidate(user);
+  }
+
+  @Test
+  public void hitWhileUnchanged() {
+    assertNotNull(revalidate(_owner));
+    assertSame(_a.getFileByName("f"), _fs.getFileByPath(PATH, _owner, _root));
+  }
+
+  @Test
+  public void createMisses() {
+    new PlainFile(_fs, "g", _a, _owner, "g");
+    assertNull(revalidate(_owner));
+  }
+
+  @Test
+  public void removeMisses() {
+    _a.remove("f", _owner);
+    assertNull(revalidate(_owner));
+    try {
+      _fs.getFileByPath(PATH, _owner, _root);
+      fail("File was removed.");
+    } catch (FileUnknownException e) {
+    }
+  }
+
+  @Test
+  public void chmodMisses() throws Exception {
+    Element dir = new Element("dir");
+    dir.addContent(new Element("perm").setText("rwxd----"));
+    _a.xmlImport(dir);
+
+    assertNull(revalidate(_other));
+    try {
+      _fs.getFileByPath(PATH, _other, _root);
+      fail("Others can no longer go through a.");
+    } catch (InsufficientPermissionsException e) {
+    }
+  }
+
+  @Test(expected = InsufficientPermissionsException.class)
+  public void permissionsReplayedForOtherUser() throws Exception {
+    Element dir = new Element("dir");
+    dir.addContent(new Element("perm").setText("rwxd----"));
+    _a.xmlImport(dir);
+    _fs.getFileByPath(PATH, _owner, _root);
+
+    _fs.getFileByPath(PATH, _other, _root);
+  }
+}
@@ -0,0 +1,76 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import pt.tecnico.myDrive.services.AppendFileService;
+
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Login;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.User;
+
+import pt.tecnico.myDrive.exceptions.InsufficientPermissionsException;
+import pt.tecnico.myDrive.exceptions.NotAPlainFileException;
+
+public class AppendFileTest extends AbstractServiceTest {
+
+  private User _user;
+  private PlainFile _log;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    FileSystem fs = FileSystem.getInstance();
+    _user = new User(fs, "appender", "appender", "appender");
+    Directory home = new Directory(fs, "appender", fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(home);
+    new Login(fs, _user, home, 123l);
+
+    User other = new User(fs, "appendother", "appendother", "appendother", "rwxdr---");
+    Directory otherHome = new Directory(fs, "appendother", fs.getHomeDirectory(), other);
+    other.setHomeDirectory(otherHome);
+    new PlainFile(fs, "readonly", otherHome, other, "");
+
+    _log = new PlainFile(fs, "log", home, _user, "first\n");
+    new Directory(fs, "dir", home, _user);
+  }
+
+  @Test
+  public void append() {
+    new AppendFileService(123l, "log", "second\n").execute();
+    assertEquals("first\nsecond\n", _log.getData(_user));
+    assertEquals(13, _log.getSize());
+  }
+
+  @Test
+  public void appendManyChunks() {
+    StringBuilder expected = new StringBuilder("first\n");
+    for (int i = 0; i < 1000; i++) {
+      String line = "line " + i + "\n";
+      new AppendFileService(123l, "log", line).execute();
+      expected.append(line);
+    }
+    assertEquals(expected.toString(), _log.getData(_user));
+    assertEquals(expected.length(), _log.getSize());
+  }
+
+  @Test
+  public void appendNothing() {
+    new AppendFileService(123l, "log", "").execute();
+    assertEquals("first\n", _log.getData(_user));
+  }
+
+  @Test(expected = NotAPlainFileException.class)
+  public void appendToDirectory() {
+    new AppendFileService(123l, "dir", "content").execute();
+  }
+
+  @Test(expected = InsufficientPermissionsException.class)
+  public void appendWithoutPermission() {
+    new AppendFileService(123l, "/home/appendother/readonly", "content").execute();
+  }
+}
@@ -0,0 +1,175 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import pt.tecnico.myDrive.services.BatchService;
+import pt.tecnico.myDrive.services.dto.BatchOperationDTO;
+import pt.tecnico.myDrive.services.dto.BatchResultDTO;
+
+import pt.tecnico.myDrive.domain.User;
+import pt.tecnico.myDrive.domain.App;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.Login;
+
+import pt.tecnico.myDrive.exceptions.FileExistsException;
+import pt.tecnico.myDrive.exceptions.FileUnknownException;
+import pt.tecnico.myDrive.exceptions.InvalidBatchOperationException;
+import pt.tecnico.myDrive.exceptions.InvalidTokenException;
+import pt.tecnico.myDrive.exceptions.UnknownTypeException;
+
+public class BatchTest extends AbstractServiceTest {
+
+  private FileSystem _fs;
+  private User _user;
+  private Login _login;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    _fs = FileSystem.getInstance();
+    _user = new User(_fs, "batche5sQu3nt0u", "batche5sQu3nt0u", "batche5sQu3nt0u");
+    _user.setHomeDirectory(new Directory(_fs, "batche5sQu3nt0u", _fs.getHomeDirectory(), _user));
+    _login = new Login(_fs, _user, _user.getHomeDirectory(), 123l);
+
+    new PlainFile(_fs, "existing", _user.getHomeDirectory(), _user, "old");
+  }
+
+  private PlainFile plainFile(String name) {
+    return (PlainFile) _user.getHomeDirectory().getFileByName(name);
+  }
+
+  @Test
+  public void runsOperationsInOrder() {
+    BatchService batch = new BatchService(123l, Arrays.asList(
+        BatchOperationDTO.create("created", "plainfile", "first"),
+        BatchOperationDTO.write("created", "second"),
+        BatchOperationDTO.write("existing", "new"),
+        BatchOperationDTO.create("dir", "directory", null)));
+    batch.execute();
+
+    for (BatchResultDTO result : batch.result())
+      assertTrue("Operation succeeded.", result.isSuccess());
+    assertEquals("second", plainFile("created").getData(_user));
+    assertEquals("new", plainFile("existing").getData(_user));
+    assertTrue(_user.getHomeDirectory().getFileByName("dir") instanceof Directory);
+  }
+
+  @Test(expected = FileUnknownException.class)
+  public void deletes() {
+    new BatchService(123l, Arrays.asList(BatchOperationDTO.delete("existing"))).execute();
+    _user.getHomeDirectory().getFileByName("existing");
+  }
+
+  @Test
+  public void failureDoesNotStopBatch() {
+    BatchService batch = new BatchService(123l, Arrays.asList(
+        BatchOperationDTO.create("existing", "plainfile", "clash"),
+        BatchOperationDTO.write("missing", "data"),
+        BatchOperationDTO.create("after", "plainfile", "after")));
+    batch.execute();
+
+    List<BatchResultDTO> results = batch.result();
+    assertEquals(3, results.size());
+    assertTrue(results.get(0).getError() instanceof FileExistsException);
+    assertTrue(results.get(1).getError() instanceof FileUnknownException);
+    assertTrue(results.get(2).isSuccess());
+    assertEquals("old", plainFile("existing").getData(_user));
+    assertEquals("after", plainFile("after").getData(_user));
+  }
+
+  @Test
+  public void invalidOperationsReported() {
+    BatchService batch = new BatchService(123l, Arrays.asList(
+        BatchOperationDTO.write("existing", null),
+        BatchOperationDTO.create("typeless", null, "data"),
+        BatchOperationDTO.delete(null),
+        null,
+        BatchOperationDTO.create("after", "plainfile", "after")));
+    batch.execute();
+
+    List<BatchResultDTO> results = batch.result();
+    assertEquals(5, results.size());
+    for (int i = 0; i < 4; i++)
+      assertTrue(results.get(i).getError() instanceof InvalidBatchOperationException);
+    assertTrue(results.get(4).isSuccess());
+    assertEquals("old", plainFile("existing").getData(_user));
+    assertEquals("after", plainFile("after").getData(_user));
+  }
+
+  @Test
+  public void failedCreateLeavesNothing() {
+    BatchService batch = new BatchService(123l, Arrays.asList(
+        BatchOperationDTO.create("dir", "directory", "content"),
+        BatchOperationDTO.create("odd", "odd", "content"),
+        BatchOperationDTO.create("$bad", "plainfile", "content")));
+    batch.execute();
+
+    for (BatchResultDTO result : batch.result())
+      assertFalse("Operation failed.", result.isSuccess());
+    assertTrue(batch.result().get(1).getError() instanceof UnknownTypeException);
+    Directory home = _user.getHomeDirectory();
+    assertEquals(3, home.getSize());
+  }
+
+  /**
+   * Every file constructed takes an id, so ids taken around failed creates
+   * tell whether any file was constructed for them and left behind. Ids
+   * come in blocks: of two consecutive ids at most one gap may be a block
+   * boundary, so at least one of them is 1 unless files were left behind.
+   */
+  @Test
+  public void failedCreateLeavesNoObject() {
+    StringBuilder longName = new StringBuilder();
+    while (longName.length() < 1024)
+      longName.append("long");
+
+    int first = _fs.requestId();
+    int[] ids = new int[2];
+    for (int i = 0; i < ids.length; i++) {
+      BatchService batch = new BatchService(123l, Arrays.asList(
+          BatchOperationDTO.create("$bad", "plainfile", "content"),
+          BatchOperationDTO.create("$bad", "directory", null),
+          BatchOperationDTO.create(longName.toString(), "app", null),
+          BatchOperationDTO.create("probe" + i, "plainfile", null)));
+      batch.execute();
+      assertFalse(batch.result().get(0).isSuccess());
+      assertFalse(batch.result().get(1).isSuccess());
+      assertFalse(batch.result().get(2).isSuccess());
+      ids[i] = plainFile("probe" + i).getId();
+    }
+
+    assertTrue("No file left behind.", ids[0] - first == 1 || ids[1] - ids[0] == 1);
+  }
+
+  @Test
+  public void createsAppWithContent() {
+    BatchService batch = new BatchService(123l, Arrays.asList(
+        BatchOperationDTO.create("app", "app", "pt.tecnico.myDrive.presentation.Helper.argumentTest")));
+    batch.execute();
+
+    assertTrue(batch.result().get(0).isSuccess());
+    App app = (App) _user.getHomeDirectory().getFileByName("app");
+    assertEquals("pt.tecnico.myDrive.presentation.Helper.argumentTest", app.getData(_user));
+  }
+
+  @Test
+  public void emptyBatch() {
+    BatchService batch = new BatchService(123l, new ArrayList<BatchOperationDTO>());
+    batch.execute();
+    assertTrue(batch.result().isEmpty());
+  }
+
+  @Test(expected = InvalidTokenException.class)
+  public void invalidToken() {
+    new BatchService(0l, Arrays.asList(BatchOperationDTO.delete("existing"))).execute();
+  }
+}
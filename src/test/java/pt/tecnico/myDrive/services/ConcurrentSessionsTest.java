@@ -0,0 +1,170 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import pt.ist.fenixframework.FenixFramework;
+
+import pt.tecnico.myDrive.services.EnvironmentVariableService;
+import pt.tecnico.myDrive.services.ReadFileService;
+
+import pt.tecnico.myDrive.domain.User;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.Login;
+
+/**
+ * Runs services for several users at once, each in its own thread, and checks
+ * that every thread only ever sees its own session.
+ *
+ * The services run in transactions of their own, so they can't see data
+ * created in the transaction the test runs in. The fixture is committed by a
+ * transaction on a thread of its own instead, under names and tokens no other
+ * test uses, and removed the same way once the test is over.
+ */
+public class ConcurrentSessionsTest extends AbstractServiceTest {
+
+  private static final int THREADS = 8;
+  private static final int ITERATIONS = 200;
+
+  private final String[] _names = new String[THREADS];
+  private final long[] _tokens = new long[THREADS];
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    String run = Long.toString(System.nanoTime(), 36);
+    for (int i = 0; i < THREADS; i++)
+      _names[i] = "conc" + i + "x" + run;
+  }
+
+  /**
+   * Runs task in a transaction of its own, on a thread of its own, and
+   * commits it.
+   */
+  private static void committed(final Runnable task) throws Exception {
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          FenixFramework.getTransactionManager().begin(false);
+          try {
+            task.run();
+            FenixFramework.getTransactionManager().commit();
+          } catch (Throwable t) {
+            FenixFramework.getTransactionManager().rollback();
+            throw t;
+          }
+        } catch (Throwable t) {
+          failure.set(t);
+        }
+      }
+    };
+    thread.start();
+    thread.join();
+    if (failure.get() != null)
+      throw new AssertionError("Fixture transaction failed", failure.get());
+  }
+
+  private void createFixture() throws Exception {
+    committed(new Runnable() {
+      @Override
+      public void run() {
+        FileSystem fs = FileSystem.getInstance();
+        Random random = new Random();
+        for (int i = 0; i < THREADS; i++) {
+          String name = _names[i];
+          User user = new User(fs, name, name, name);
+          Directory home = new Directory(fs, name, fs.getHomeDirectory(), user);
+          user.setHomeDirectory(home);
+          new PlainFile(fs, "own", home, user, name);
+
+          long token = random.nextLong();
+          while (fs.existsToken(token))
+            token = random.nextLong();
+          new Login(fs, user, home, token);
+          _tokens[i] = token;
+        }
+      }
+    });
+  }
+
+  private void removeFixture() throws Exception {
+    committed(new Runnable() {
+      @Override
+      public void run() {
+        FileSystem fs = FileSystem.getInstance();
+        for (int i = 0; i < THREADS; i++) {
+          Login login = fs.getLoginByToken(_tokens[i]);
+          if (login != null)
+            login.remove();
+          User user = fs.getUserByUsername(_names[i]);
+          if (user != null) {
+            user.getHomeDirectory().remove(user);
+            user.remove();
+          }
+        }
+      }
+    });
+  }
+
+  @Test
+  public void sessionsAreIsolated() throws Exception {
+    createFixture();
+    try {
+      runSessions();
+    } finally {
+      removeFixture();
+    }
+  }
+
+  private void runSessions() throws Exception {
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    List<Thread> threads = new ArrayList<Thread>();
+
+    for (int i = 0; i < THREADS; i++) {
+      final long token = _tokens[i];
+      final String name = _names[i];
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            new EnvironmentVariableService(token, "MINE", "/home/" + name).execute();
+            for (int j = 0; j < ITERATIONS; j++) {
+              ReadFileService relative = new ReadFileService(token, "own");
+              relative.execute();
+              assertEquals(name, relative.result());
+
+              ReadFileService variable = new ReadFileService(token, "$MINE/own");
+              variable.execute();
+              assertEquals(name, variable.result());
+            }
+          } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+          }
+        }
+      };
+      threads.add(thread);
+      thread.start();
+    }
+
+    start.countDown();
+    for (Thread thread : threads)
+      thread.join();
+
+    if (failure.get() != null)
+      throw new AssertionError("A service saw another session", failure.get());
+  }
+}
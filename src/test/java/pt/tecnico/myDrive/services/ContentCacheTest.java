@@ -0,0 +1,81 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import pt.tecnico.myDrive.services.AppendFileService;
+import pt.tecnico.myDrive.services.DeleteFileService;
+import pt.tecnico.myDrive.services.ReadFileService;
+import pt.tecnico.myDrive.services.WriteFileService;
+
+import pt.tecnico.myDrive.domain.ContentCache;
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Login;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.User;
+
+public class ContentCacheTest extends AbstractServiceTest {
+
+  private ContentCache _cache;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    FileSystem fs = FileSystem.getInstance();
+    User user = new User(fs, "cachereader", "cachereader", "cachereader");
+    Directory home = new Directory(fs, "cachereader", fs.getHomeDirectory(), user);
+    user.setHomeDirectory(home);
+    new Login(fs, user, home, 123l);
+    new PlainFile(fs, "config", home, user, "shared config");
+
+    _cache = ContentCache.get();
+    _cache.clear();
+    _cache.reset();
+  }
+
+  private String read(String path) {
+    ReadFileService service = new ReadFileService(123l, path);
+    service.execute();
+    return service.result();
+  }
+
+  @Test
+  public void repeatedReadsHit() {
+    assertEquals("shared config", read("config"));
+    assertEquals("shared config", read("config"));
+    assertEquals("shared config", read("config"));
+
+    assertEquals(1, _cache.getMisses());
+    assertEquals(2, _cache.getHits());
+    assertEquals(1, _cache.getEntries());
+    assertTrue(_cache.getBytes() > 0);
+  }
+
+  @Test
+  public void writeInvalidates() {
+    read("config");
+    new WriteFileService(123l, "config", "new config").execute();
+    assertEquals(0, _cache.getEntries());
+
+    assertEquals("new config", read("config"));
+    assertEquals(2, _cache.getMisses());
+  }
+
+  @Test
+  public void appendInvalidates() {
+    read("config");
+    new AppendFileService(123l, "config", " and more").execute();
+    assertEquals("shared config and more", read("config"));
+  }
+
+  @Test
+  public void removalInvalidates() {
+    read("config");
+    new DeleteFileService(123l, "config").execute();
+    assertEquals(0, _cache.getEntries());
+    assertEquals(0, _cache.getBytes());
+  }
+}
@@ -0,0 +1,125 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import pt.tecnico.myDrive.services.ContentStoreStatsService;
+import pt.tecnico.myDrive.services.DeleteFileService;
+import pt.tecnico.myDrive.services.WriteFileService;
+import pt.tecnico.myDrive.services.dto.ContentStoreStatsDTO;
+
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Login;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.User;
+
+import pt.tecnico.myDrive.exceptions.InsufficientPermissionsException;
+
+public class ContentStoreStatsTest extends AbstractServiceTest {
+
+  private static final String TEMPLATE = "a template copied over and over";
+
+  private FileSystem _fs;
+  private User _user;
+  private PlainFile _first, _second;
+  private ContentStoreStatsDTO _before;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    FileSystem fs = FileSystem.getInstance();
+    _fs = fs;
+    // Chunks left unheld by earlier runs would be swept by the tests
+    fs.sweepChunks();
+    _before = fs.getContentStoreStats();
+
+    _user = new User(fs, "deduper", "deduper", "deduper");
+    Directory home = new Directory(fs, "deduper", fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(home);
+    new Login(fs, _user, home, 123l);
+
+    User root = fs.getUserByUsername("root");
+    new Login(fs, root, root.getHomeDirectory(), 124l);
+
+    _first = new PlainFile(fs, "first", home, _user, TEMPLATE);
+    _second = new PlainFile(fs, "second", home, _user, TEMPLATE);
+  }
+
+  private ContentStoreStatsDTO stats() {
+    ContentStoreStatsService service = new ContentStoreStatsService(124l);
+    service.execute();
+    return service.result();
+  }
+
+  @Test
+  public void identicalFilesShareChunks() {
+    ContentStoreStatsDTO stats = stats();
+    assertEquals(_before.getChunks() + 1, stats.getChunks());
+    assertEquals(_before.getReferences() + 2, stats.getReferences());
+    assertEquals(_before.getSavedLength() + TEMPLATE.length(), stats.getSavedLength());
+  }
+
+  @Test
+  public void writeDoesNotChangeSharedCopy() {
+    new WriteFileService(123l, "first", "changed").execute();
+
+    assertEquals("changed", _first.getData(_user));
+    assertEquals(TEMPLATE, _second.getData(_user));
+    assertEquals(_before.getSavedLength(), stats().getSavedLength());
+  }
+
+  @Test
+  public void chunkRemovedWithLastCopy() {
+    new DeleteFileService(123l, "first").execute();
+    _fs.sweepChunks();
+    assertEquals(_before.getChunks() + 1, stats().getChunks());
+
+    new DeleteFileService(123l, "second").execute();
+    // Letting go of a chunk doesn't write it: it stays until swept
+    assertEquals(_before.getChunks() + 1, stats().getChunks());
+    assertEquals(_before.getReferences(), stats().getReferences());
+
+    _fs.sweepChunks();
+    assertEquals(_before.getChunks(), stats().getChunks());
+  }
+
+  @Test
+  public void repeatedChunksInOneFileAreShared() {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 3 * 4096; i++)
+      content.append('x');
+    new WriteFileService(123l, "first", content.toString()).execute();
+
+    ContentStoreStatsDTO stats = stats();
+    // One chunk of x's, plus the template still held by the second file
+    assertEquals(_before.getChunks() + 2, stats.getChunks());
+    assertEquals(_before.getSavedLength() + 2 * 4096, stats.getSavedLength());
+    assertEquals(content.toString(), _first.getData(_user));
+  }
+
+  @Test
+  public void largeChunksStoredCompressed() {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; content.length() < 4096; i++)
+      content.append("line ").append(i).append(" of a text file\n");
+    new WriteFileService(123l, "first", content.toString()).execute();
+
+    ContentStoreStatsDTO stats = stats();
+    assertTrue(stats.getCompressedChunks() > _before.getCompressedChunks());
+    assertTrue(stats.getCompressionRatio() > 1);
+    assertEquals(content.toString(), _first.getData(_user));
+  }
+
+  @Test(expected = InsufficientPermissionsException.class)
+  public void onlyRootGetsStats() {
+    new ContentStoreStatsService(123l).execute();
+  }
+
+  @Test
+  public void smallChunksSkipCompression() {
+    assertEquals(_before.getCompressedChunks(), stats().getCompressedChunks());
+  }
+}
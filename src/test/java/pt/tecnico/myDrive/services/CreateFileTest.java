@@ -6,6 +6,9 @@ package pt.tecnico.myDrive.service;
 import org.junit.*;
 import static org.junit.Assert.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import pt.tecnico.myDrive.services.CreateFileService;
 
 import pt.tecnico.myDrive.domain.App;
@@ -85,6 +88,16 @@ public class CreateFileTest extends AbstractServiceTest {
     assertTrue(pf != null && pf.getData(_guestUser).equals("") && pf.getOwner().equals(_guestUser));
   }
 
+  @Test
+  public void testCreatedFilesHaveUniqueIds() throws Exception {
+    Set<Integer> ids = new HashSet<Integer>();
+    for (int i = 0; i < 200; i++) {
+      new CreateFileService(123l, "idtest" + i, "plainfile").execute();
+      File f = _user.getHomeDirectory().getFileByName("idtest" + i);
+      assertTrue("File id is unique.", ids.add(f.getId()));
+    }
+  }
+
   @Test
   public void testCreateFileWithCiph() throws Exception {
     CreateFileService cfs = new CreateFileService(123l, "p$f$$$6p", "plainfile");
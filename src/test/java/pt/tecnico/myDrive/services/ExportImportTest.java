@@ -0,0 +1,93 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+import pt.tecnico.myDrive.services.ImportMyDriveService;
+
+import pt.tecnico.myDrive.domain.App;
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Link;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.User;
+
+/**
+ * Exporting a filesystem and importing the document back must give the same
+ * filesystem.
+ */
+public class ExportImportTest extends AbstractServiceTest {
+
+  private FileSystem _fs;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    _fs = FileSystem.getInstance();
+    User user = new User(_fs, "roundtrip", "Round Trip", "roundtrip", "rwxdr-x-");
+    Directory home = new Directory(_fs, "roundtrip", _fs.getHomeDirectory(), user);
+    user.setHomeDirectory(home);
+
+    Directory dir = new Directory(_fs, "dir", home, user);
+    Directory nested = new Directory(_fs, "nested", dir, user);
+    new PlainFile(_fs, "plain", nested, user, "some contents");
+    new Link(_fs, "link", home, user, "/home/roundtrip/dir/nested/plain");
+    new App(_fs, "app", dir, user, "pt.tecnico.myDrive.presentation.Hello.sun");
+  }
+
+  @Test
+  public void roundTrip() {
+    Document doc = _fs.xmlExport();
+    new ImportMyDriveService(doc).execute();
+
+    User user = _fs.getUserByUsername("roundtrip");
+    assertNotNull("User was imported.", user);
+    assertEquals("rwxdr-x-", user.getUmask());
+
+    Directory home = user.getHomeDirectory();
+    assertEquals("/home/roundtrip", home.getPath());
+
+    PlainFile plain = (PlainFile) _fs.getFileByPath("dir/nested/plain", user, home);
+    assertEquals("some contents", plain.getData(user));
+    assertEquals(user, plain.getOwner());
+
+    Link link = (Link) home.getFileByName("link");
+    assertEquals("/home/roundtrip/dir/nested/plain", link.getData(user));
+
+    App app = (App) _fs.getFileByPath("dir/app", user, home);
+    assertEquals("pt.tecnico.myDrive.presentation.Hello.sun", app.getData(user));
+  }
+
+  @Test
+  public void exportAgainIsTheSame() {
+    Document first = _fs.xmlExport();
+    new ImportMyDriveService(first).execute();
+    Document second = _fs.xmlExport();
+
+    assertEquals(entries(first), entries(second));
+  }
+
+  /**
+   * @return Each user and file of doc, as XML, in an order of their own:
+   * the export only orders files by the depth of their directory.
+   */
+  private static List<String> entries(Document doc) {
+    XMLOutputter outputter = new XMLOutputter(Format.getCompactFormat());
+    List<String> entries = new ArrayList<String>();
+    for (Element entry : doc.getRootElement().getChildren())
+      entries.add(outputter.outputString(entry));
+    Collections.sort(entries);
+    return entries;
+  }
+}
@@ -0,0 +1,139 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import pt.tecnico.myDrive.services.ListDirectoryPageService;
+import pt.tecnico.myDrive.services.dto.DirectoryPageDTO;
+import pt.tecnico.myDrive.services.dto.FileEntryDTO;
+
+import pt.tecnico.myDrive.domain.App;
+import pt.tecnico.myDrive.domain.Link;
+import pt.tecnico.myDrive.domain.User;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.Login;
+
+import pt.tecnico.myDrive.exceptions.InsufficientPermissionsException;
+import pt.tecnico.myDrive.exceptions.InvalidPageSizeException;
+import pt.tecnico.myDrive.exceptions.NotADirectoryException;
+
+public class ListDirectoryPageTest extends AbstractServiceTest {
+
+  private FileSystem _fs;
+  private User _user;
+  private User _other;
+  private Login _login;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    try {
+      _fs = FileSystem.getInstance();
+      _user = new User(_fs, "pagee5sQu3nt0u", "pagee5sQu3nt0u", "pagee5sQu3nt0u");
+      _user.setHomeDirectory(new Directory(_fs, "pagee5sQu3nt0u", _fs.getHomeDirectory(), _user));
+      _other = new User(_fs, "othee5sQu3nt0u", "othee5sQu3nt0u", "othee5sQu3nt0u");
+      _other.setHomeDirectory(new Directory(_fs, "othee5sQu3nt0u", _fs.getHomeDirectory(), _other));
+      _login = new Login(_fs, _user, _user.getHomeDirectory(), 123l);
+
+      /* We'll have something like this
+       * |- app
+       * |- dir
+       * |- link -> pf
+       * |- pf
+       * */
+
+      new PlainFile (_fs, "pf"  , _user.getHomeDirectory(), _user, "pf_Data");
+      new App       (_fs, "app" , _user.getHomeDirectory(), _user, "app_Data");
+      new Link      (_fs, "link", _user.getHomeDirectory(), _user, "pf");
+      new Directory (_fs, "dir" , _user.getHomeDirectory(), _user);
+
+    } catch(Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  private DirectoryPageDTO page(String cursor, int limit) {
+    ListDirectoryPageService lds = new ListDirectoryPageService(123l, ".", cursor, limit);
+    lds.execute();
+    return lds.result();
+  }
+
+  @Test
+  public void firstPage() {
+    DirectoryPageDTO page = page(null, 2);
+    List<FileEntryDTO> entries = page.getEntries();
+
+    assertEquals("Page size is incorrect!", 2, entries.size());
+    assertEquals("First entry is incorrect!", "app", entries.get(0).getName());
+    assertEquals("Second entry is incorrect!", "dir", entries.get(1).getName());
+    assertEquals("Cursor is incorrect!", "dir", page.getNextCursor());
+  }
+
+  @Test
+  public void lastPage() {
+    DirectoryPageDTO page = page("dir", 2);
+    List<FileEntryDTO> entries = page.getEntries();
+
+    assertEquals("Page size is incorrect!", 2, entries.size());
+    assertEquals("First entry is incorrect!", "link", entries.get(0).getName());
+    assertEquals("Second entry is incorrect!", "pf", entries.get(1).getName());
+    assertFalse("Last page has a next page!", page.hasNext());
+  }
+
+  @Test
+  public void wholeDirectory() {
+    DirectoryPageDTO page = page(null, 100);
+
+    assertEquals("Page size is incorrect!", 4, page.getEntries().size());
+    assertNull("Cursor is incorrect!", page.getNextCursor());
+  }
+
+  @Test
+  public void cursorPastEnd() {
+    DirectoryPageDTO page = page("zzz", 10);
+
+    assertTrue("Page should be empty!", page.getEntries().isEmpty());
+    assertFalse("Empty page has a next page!", page.hasNext());
+  }
+
+  @Test
+  public void entryDescription() {
+    List<FileEntryDTO> entries = page(null, 10).getEntries();
+
+    FileEntryDTO dir = entries.get(1);
+    assertEquals("Directory type is incorrect!", "d", dir.getType());
+    assertEquals("Directory size is incorrect!", 2, dir.getSize());
+
+    FileEntryDTO link = entries.get(2);
+    assertEquals("Link type is incorrect!", "l", link.getType());
+    assertEquals("Link target is incorrect!", "pf", link.getLinkTarget());
+
+    FileEntryDTO pf = entries.get(3);
+    assertEquals("PlainFile type is incorrect!", "-", pf.getType());
+    assertEquals("PlainFile permissions are incorrect!", "rwxd----", pf.getPermissions());
+    assertEquals("PlainFile size is incorrect!", "pf_Data".length(), pf.getSize());
+    assertFalse("PlainFile is not a link!", pf.isLink());
+    assertNotNull("PlainFile has no modification date!", pf.getLastModified());
+  }
+
+  @Test(expected = InvalidPageSizeException.class)
+  public void emptyPage() {
+    page(null, 0);
+  }
+
+  @Test(expected = NotADirectoryException.class)
+  public void listPlainFile() {
+    new ListDirectoryPageService(123l, "pf", 10).execute();
+  }
+
+  @Test(expected = InsufficientPermissionsException.class)
+  public void insufficientPermissions() {
+    new ListDirectoryPageService(123l, _other.getHomeDirectory().getPath(), 10).execute();
+  }
+}
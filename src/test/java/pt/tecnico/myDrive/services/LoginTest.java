@@ -19,6 +19,7 @@ import pt.tecnico.myDrive.exceptions.InvalidTokenException;
 import pt.tecnico.myDrive.exceptions.InvalidPasswordLengthException;
 
 import pt.tecnico.myDrive.services.LoginService;
+import pt.tecnico.myDrive.services.ListDirectoryService;
 
 /**
  * @author miguel
@@ -69,6 +70,14 @@ public class LoginTest extends AbstractServiceTest {
 	}
 
 
+  @Test
+  public void usernameIgnoresCase() {
+    LoginService login = new LoginService("TestUser1", "whatchumeanb6p");
+    login.execute();
+
+    assertTrue("Login ignoring case.", _fs.getUserByToken(login.result()) == _user);
+  }
+
 	@Test(expected = UserUnknownException.class)
   public void userUnknown() throws Exception{
 		LoginService login = new LoginService("testuser123", "whatchumeanb6p");
@@ -93,6 +102,34 @@ public class LoginTest extends AbstractServiceTest {
 		assertFalse("Token is invalid after 2 hours.", _fs.isValidToken(tok));
 	}
 
+  @Test
+  public void tokenRefreshedPastHalfLifetime() throws Exception {
+    LoginService login = new LoginService(_user.getUsername(), "whatchumeanb6p");
+    login.execute();
+    long tok = login.result();
+
+    Login log = _fs.getLoginByToken(tok);
+    log.reduceExpirationDate(1, 30, 0);
+    new ListDirectoryService(tok).execute();
+
+    log.reduceExpirationDate(1, 0, 0);
+    assertTrue("Token was extended.", _fs.isValidToken(tok));
+  }
+
+  @Test
+  public void tokenKeptBeforeHalfLifetime() throws Exception {
+    LoginService login = new LoginService(_user.getUsername(), "whatchumeanb6p");
+    login.execute();
+    long tok = login.result();
+
+    Login log = _fs.getLoginByToken(tok);
+    log.reduceExpirationDate(0, 30, 0);
+    new ListDirectoryService(tok).execute();
+
+    log.reduceExpirationDate(1, 30, 0);
+    assertFalse("Token wasn't extended.", _fs.isValidToken(tok));
+  }
+
 	@Test
 	public void cullLogins() throws Exception{
 		LoginService loginservice1 = new LoginService(_user.getUsername(), "whatchumeanb6p");
@@ -0,0 +1,121 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+
+import pt.tecnico.myDrive.services.ReadFileRangeService;
+import pt.tecnico.myDrive.services.StreamFileService;
+
+import pt.tecnico.myDrive.domain.ContentReader;
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Login;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.User;
+
+import pt.tecnico.myDrive.exceptions.InsufficientPermissionsException;
+import pt.tecnico.myDrive.exceptions.InvalidRangeException;
+import pt.tecnico.myDrive.exceptions.NotAPlainFileException;
+
+public class ReadFileRangeTest extends AbstractServiceTest {
+
+  private String _large;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    FileSystem fs = FileSystem.getInstance();
+    User user = new User(fs, "rangereader", "rangereader", "rangereader");
+    Directory home = new Directory(fs, "rangereader", fs.getHomeDirectory(), user);
+    user.setHomeDirectory(home);
+    new Login(fs, user, home, 123l);
+
+    User other = new User(fs, "rangeother", "rangeother", "rangeother", "rwxd----");
+    Directory otherHome = new Directory(fs, "rangeother", fs.getHomeDirectory(), other);
+    other.setHomeDirectory(otherHome);
+    new PlainFile(fs, "private", otherHome, other, "secret");
+
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 10000; i++)
+      large.append((char) ('a' + i % 26));
+    _large = large.toString();
+
+    new PlainFile(fs, "large", home, user, _large);
+    new PlainFile(fs, "small", home, user, "small contents");
+    new Directory(fs, "dir", home, user);
+  }
+
+  private String range(String path, int offset, int length) {
+    ReadFileRangeService service = new ReadFileRangeService(123l, path, offset, length);
+    service.execute();
+    return service.result();
+  }
+
+  @Test
+  public void readRange() {
+    assertEquals("contents", range("small", 6, 8));
+    assertEquals("small", range("small", 0, 5));
+  }
+
+  @Test
+  public void readRangeAcrossChunks() {
+    assertEquals(_large.substring(4000, 9000), range("large", 4000, 5000));
+  }
+
+  @Test
+  public void readRangePastTheEnd() {
+    assertEquals(_large.substring(9990), range("large", 9990, 100));
+    assertEquals("", range("large", 20000, 100));
+  }
+
+  @Test(expected = InvalidRangeException.class)
+  public void readNegativeOffset() {
+    range("small", -1, 5);
+  }
+
+  @Test(expected = NotAPlainFileException.class)
+  public void readRangeOfDirectory() {
+    range("dir", 0, 5);
+  }
+
+  @Test(expected = InsufficientPermissionsException.class)
+  public void readRangeWithoutPermission() {
+    range("/home/rangeother/private", 0, 5);
+  }
+
+  @Test
+  public void streamInChunks() throws Exception {
+    StreamFileService service = new StreamFileService(123l, "large");
+    service.execute();
+    ContentReader reader = service.result();
+
+    StringBuilder content = new StringBuilder();
+    int chunks = 0;
+    for (String chunk = reader.readChunk(); chunk != null; chunk = reader.readChunk()) {
+      content.append(chunk);
+      chunks++;
+    }
+    assertEquals(_large, content.toString());
+    assertEquals(3, chunks);
+  }
+
+  @Test
+  public void streamRangeAsReader() throws Exception {
+    StreamFileService service = new StreamFileService(123l, "large", 4090, 10);
+    service.execute();
+
+    BufferedReader reader = new BufferedReader(service.result());
+    assertEquals(_large.substring(4090, 4100), reader.readLine());
+    assertNull(reader.readLine());
+    reader.close();
+  }
+
+  @Test(expected = InsufficientPermissionsException.class)
+  public void streamWithoutPermission() {
+    new StreamFileService(123l, "/home/rangeother/private").execute();
+  }
+}
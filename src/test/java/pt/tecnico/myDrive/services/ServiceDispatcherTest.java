@@ -0,0 +1,116 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import pt.tecnico.myDrive.services.ReadFileService;
+import pt.tecnico.myDrive.services.ServiceDispatcher;
+import pt.tecnico.myDrive.services.ServiceDispatcher.RejectionPolicy;
+import pt.tecnico.myDrive.services.myDriveService;
+
+import pt.tecnico.myDrive.exceptions.InvalidTokenException;
+
+public class ServiceDispatcherTest extends AbstractServiceTest {
+
+  private ServiceDispatcher _dispatcher;
+
+  /**
+   * Service that waits to be released before finishing.
+   */
+  private static class WaitingService extends myDriveService {
+    private final CountDownLatch _release;
+    private Thread _thread;
+
+    WaitingService(CountDownLatch release) {
+      _release = release;
+    }
+
+    @Override
+    protected void dispatch() {
+      _thread = Thread.currentThread();
+      try {
+        _release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+  }
+
+  @After
+  public void closeDispatcher() throws Exception {
+    if (_dispatcher != null)
+      _dispatcher.close();
+  }
+
+  @Test
+  public void completesWithService() throws Exception {
+    _dispatcher = new ServiceDispatcher(2, 4, RejectionPolicy.ABORT);
+    CountDownLatch release = new CountDownLatch(0);
+    WaitingService service = new WaitingService(release);
+
+    assertSame(service, _dispatcher.submit(service).get(10, TimeUnit.SECONDS));
+    assertNotSame("Executed by a worker.", Thread.currentThread(), service._thread);
+  }
+
+  @Test
+  public void completesWithServiceException() throws Exception {
+    _dispatcher = new ServiceDispatcher(1, 1, RejectionPolicy.ABORT);
+    CompletableFuture<ReadFileService> future = _dispatcher.submit(new ReadFileService(0l, "file"));
+    try {
+      future.get(10, TimeUnit.SECONDS);
+      fail("Token should be invalid.");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof InvalidTokenException);
+    }
+  }
+
+  @Test
+  public void abortsWhenQueueIsFull() throws Exception {
+    _dispatcher = new ServiceDispatcher(1, 1, RejectionPolicy.ABORT);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<WaitingService> running = _dispatcher.submit(new WaitingService(release));
+    while (_dispatcher.getActive() == 0)
+      Thread.sleep(1);
+    CompletableFuture<WaitingService> queued = _dispatcher.submit(new WaitingService(release));
+    CompletableFuture<WaitingService> rejected = _dispatcher.submit(new WaitingService(release));
+
+    try {
+      rejected.get(10, TimeUnit.SECONDS);
+      fail("Service should be rejected.");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+
+    release.countDown();
+    running.get(10, TimeUnit.SECONDS);
+    queued.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void callerRunsWhenQueueIsFull() throws Exception {
+    _dispatcher = new ServiceDispatcher(1, 1, RejectionPolicy.CALLER_RUNS);
+    CountDownLatch release = new CountDownLatch(1);
+    _dispatcher.submit(new WaitingService(release));
+    while (_dispatcher.getActive() == 0)
+      Thread.sleep(1);
+    _dispatcher.submit(new WaitingService(release));
+
+    WaitingService overflow = new WaitingService(new CountDownLatch(0));
+    _dispatcher.submit(overflow).get(10, TimeUnit.SECONDS);
+    assertSame("Executed by the caller.", Thread.currentThread(), overflow._thread);
+    release.countDown();
+  }
+}
@@ -0,0 +1,70 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import pt.tecnico.myDrive.services.ReadFileService;
+import pt.tecnico.myDrive.services.ServiceStats;
+
+import pt.tecnico.myDrive.domain.User;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.Login;
+
+import pt.tecnico.myDrive.exceptions.InvalidTokenException;
+
+public class ServiceStatsTest extends AbstractServiceTest {
+
+  private ServiceStats _stats;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    FileSystem fs = FileSystem.getInstance();
+    User user = new User(fs, "statse5sQu3nt0u", "statse5sQu3nt0u", "statse5sQu3nt0u");
+    user.setHomeDirectory(new Directory(fs, "statse5sQu3nt0u", fs.getHomeDirectory(), user));
+    new Login(fs, user, user.getHomeDirectory(), 123l);
+    new PlainFile(fs, "pf", user.getHomeDirectory(), user, "data");
+
+    _stats = ServiceStats.of(ReadFileService.class);
+    _stats.reset();
+  }
+
+  @Test
+  public void countsCommits() {
+    new ReadFileService(123l, "pf").execute();
+    new ReadFileService(123l, "pf").execute();
+
+    assertEquals(2, _stats.getInvocations());
+    assertEquals(2, _stats.getCommits());
+    assertEquals(0, _stats.getFailures());
+    assertTrue(_stats.getAttempts() >= 2);
+    assertTrue(ServiceStats.all().containsKey(ReadFileService.class.getName()));
+  }
+
+  @Test
+  public void countsFailures() {
+    try {
+      new ReadFileService(0l, "pf").execute();
+      fail("Token should be invalid.");
+    } catch (InvalidTokenException e) {
+      assertEquals(1, _stats.getInvocations());
+      assertEquals(0, _stats.getCommits());
+      assertEquals(1, _stats.getFailures());
+    }
+  }
+
+  @Test
+  public void recordsLatency() {
+    new ReadFileService(123l, "pf").execute();
+
+    long recorded = 0;
+    for (long count : _stats.getLatencyHistogram())
+      recorded += count;
+    assertEquals(1, recorded);
+    assertTrue(_stats.getLatencyPercentileMicros(0.99) > 0);
+  }
+}
@@ -0,0 +1,79 @@
+package pt.tecnico.myDrive.service;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import pt.tecnico.myDrive.services.WriteFileRangeService;
+
+import pt.tecnico.myDrive.domain.Directory;
+import pt.tecnico.myDrive.domain.FileSystem;
+import pt.tecnico.myDrive.domain.Login;
+import pt.tecnico.myDrive.domain.PlainFile;
+import pt.tecnico.myDrive.domain.User;
+
+import pt.tecnico.myDrive.exceptions.InvalidRangeException;
+
+public class WriteFileRangeTest extends AbstractServiceTest {
+
+  private User _user;
+  private PlainFile _small, _large;
+  private String _content;
+
+  /* (non-Javadoc)
+   * @see pt.tecnico.myDrive.service.AbstractServiceTest#populate()
+   */
+  @Override
+  protected void populate() {
+    FileSystem fs = FileSystem.getInstance();
+    _user = new User(fs, "rangewriter", "rangewriter", "rangewriter");
+    Directory home = new Directory(fs, "rangewriter", fs.getHomeDirectory(), _user);
+    _user.setHomeDirectory(home);
+    new Login(fs, _user, home, 123l);
+
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 10000; i++)
+      content.append((char) ('a' + i % 26));
+    _content = content.toString();
+
+    _small = new PlainFile(fs, "small", home, _user, "hello world");
+    _large = new PlainFile(fs, "large", home, _user, _content);
+  }
+
+  @Test
+  public void overwriteInside() {
+    new WriteFileRangeService(123l, "small", 6, "there").execute();
+    assertEquals("hello there", _small.getData(_user));
+  }
+
+  @Test
+  public void overwritePastTheEnd() {
+    new WriteFileRangeService(123l, "small", 6, "everybody").execute();
+    assertEquals("hello everybody", _small.getData(_user));
+    assertEquals(15, _small.getSize());
+  }
+
+  @Test
+  public void overwriteAcrossChunks() {
+    new WriteFileRangeService(123l, "large", 4090, "0123456789ABCDEF").execute();
+
+    String expected = _content.substring(0, 4090) + "0123456789ABCDEF" + _content.substring(4106);
+    assertEquals(expected, _large.getData(_user));
+    assertEquals(10000, _large.getSize());
+  }
+
+  @Test
+  public void writeAtTheEnd() {
+    new WriteFileRangeService(123l, "small", 11, "!").execute();
+    assertEquals("hello world!", _small.getData(_user));
+  }
+
+  @Test(expected = InvalidRangeException.class)
+  public void writePastTheEnd() {
+    new WriteFileRangeService(123l, "small", 12, "!").execute();
+  }
+
+  @Test(expected = InvalidRangeException.class)
+  public void writeNegativeOffset() {
+    new WriteFileRangeService(123l, "small", -1, "!").execute();
+  }
+}
@@ -268,4 +268,23 @@ public class WriteFileTest extends AbstractServiceTest {
       WriteFileService wfs = new WriteFileService(_guestToken,"plainfile3","content");
       wfs.execute();
     }
+
+  @Test
+  public void writeSpanningSeveralChunks() throws Exception {
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 10000; i++)
+      large.append((char) ('a' + i % 26));
+
+    new WriteFileService(123l, "pf", large.toString()).execute();
+    assertEquals(large.toString(), pf.getData(_user));
+    assertEquals(10000, pf.getSize());
+
+    large.setCharAt(5000, '!');
+    new WriteFileService(123l, "pf", large.toString()).execute();
+    assertEquals(large.toString(), pf.getData(_user));
+
+    new WriteFileService(123l, "pf", "short").execute();
+    assertEquals("short", pf.getData(_user));
+    assertEquals(5, pf.getSize());
+  }
 }